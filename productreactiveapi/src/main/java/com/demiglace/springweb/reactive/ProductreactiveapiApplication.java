@@ -0,0 +1,13 @@
+package com.demiglace.springweb.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ProductreactiveapiApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ProductreactiveapiApplication.class, args);
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.demiglace.springweb.reactive.cache;
+
+import org.springframework.stereotype.Component;
+
+import com.demiglace.springweb.reactive.entities.Product;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking view of the Hazelcast "product-cache" map. Spring's
+ * {@code @Cacheable} cannot cache the value of a {@code Mono}, so the
+ * controller does cache-aside through the map's async operations instead.
+ */
+@Component
+public class ProductCache {
+
+	public static final String NAME = "product-cache";
+
+	private final IMap<Integer, Product> map;
+
+	public ProductCache(HazelcastInstance hazelcastInstance) {
+		this.map = hazelcastInstance.getMap(NAME);
+	}
+
+	public Mono<Product> get(int id) {
+		return Mono.fromCompletionStage(() -> map.getAsync(id));
+	}
+
+	public Mono<Void> put(Product product) {
+		return Mono.fromCompletionStage(() -> map.setAsync(product.getId(), product));
+	}
+
+	public Mono<Void> evict(int id) {
+		return Mono.fromCompletionStage(() -> map.removeAsync(id)).then();
+	}
+}
@@ -0,0 +1,25 @@
+package com.demiglace.springweb.reactive.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+
+@Configuration
+public class ProductCacheConfig {
+
+	@Value("${productreactiveapi.cache.multicast-enabled:true}")
+	private boolean multicastEnabled;
+
+	@Bean
+	public Config cacheConfig() {
+		Config config = new Config()
+				.setInstanceName("hazel-reactive-instance")
+				.addMapConfig(new MapConfig().setName("product-cache")
+				.setTimeToLiveSeconds(3000));
+		config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(multicastEnabled);
+		return config;
+	}
+}
@@ -0,0 +1,60 @@
+package com.demiglace.springweb.reactive.controllers;
+
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.demiglace.springweb.reactive.cache.ProductCache;
+import com.demiglace.springweb.reactive.entities.Product;
+import com.demiglace.springweb.reactive.repos.ProductRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+public class ProductReactiveController {
+
+	@Autowired
+	ProductRepository repository;
+
+	@Autowired
+	ProductCache cache;
+
+	@GetMapping("/products/")
+	public Flux<Product> getProducts() {
+		return repository.findAll();
+	}
+
+	@GetMapping("/products/{id}")
+	public Mono<Product> getProduct(@PathVariable("id") int id) {
+		return cache.get(id)
+				.switchIfEmpty(Mono.defer(() -> repository.findById(id)
+						.flatMap(product -> cache.put(product).thenReturn(product))))
+				.switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)));
+	}
+
+	@PostMapping("/products/")
+	public Mono<Product> createProduct(@Valid @RequestBody Product product) {
+		return repository.save(product);
+	}
+
+	@PutMapping("/products/")
+	public Mono<Product> updateProduct(@RequestBody Product product) {
+		return repository.save(product)
+				.flatMap(saved -> cache.evict(saved.getId()).thenReturn(saved));
+	}
+
+	@DeleteMapping("/products/{id}")
+	public Mono<Void> deleteProduct(@PathVariable("id") int id) {
+		return repository.deleteById(id).then(cache.evict(id));
+	}
+}
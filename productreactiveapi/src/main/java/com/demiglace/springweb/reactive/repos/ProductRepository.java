@@ -0,0 +1,9 @@
+package com.demiglace.springweb.reactive.repos;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.demiglace.springweb.reactive.entities.Product;
+
+public interface ProductRepository extends ReactiveCrudRepository<Product, Integer> {
+
+}
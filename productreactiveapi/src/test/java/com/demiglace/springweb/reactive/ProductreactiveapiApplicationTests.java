@@ -0,0 +1,75 @@
+package com.demiglace.springweb.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.demiglace.springweb.reactive.cache.ProductCache;
+import com.demiglace.springweb.reactive.entities.Product;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class ProductreactiveapiApplicationTests {
+
+	private static final String PRODUCT_URL = "/productapi/products/";
+
+	@Autowired
+	WebTestClient webTestClient;
+
+	@Autowired
+	ProductCache cache;
+
+	private Product createProduct(String name) {
+		Product product = new Product();
+		product.setName(name);
+		product.setDescription("Gaming Laptop");
+		product.setPrice(2000);
+		return webTestClient.post().uri(PRODUCT_URL).bodyValue(product)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(Product.class).returnResult().getResponseBody();
+	}
+
+	@Test
+	void testCreateAndGetProduct() {
+		Product created = createProduct("Legion");
+		assertNotNull(created);
+		assertTrue(created.getId() > 0);
+
+		webTestClient.get().uri(PRODUCT_URL + created.getId())
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(Product.class)
+				.value(product -> assertEquals("Legion", product.getName()));
+		assertNotNull(cache.get(created.getId()).block());
+	}
+
+	@Test
+	void testUpdateEvictsCachedProduct() {
+		Product created = createProduct("Nitro 5");
+		webTestClient.get().uri(PRODUCT_URL + created.getId()).exchange().expectStatus().isOk();
+
+		created.setPrice(279);
+		webTestClient.put().uri(PRODUCT_URL).bodyValue(created).exchange().expectStatus().isOk();
+
+		webTestClient.get().uri(PRODUCT_URL + created.getId())
+				.exchange()
+				.expectBody(Product.class)
+				.value(product -> assertEquals(279, product.getPrice()));
+	}
+
+	@Test
+	void testDeleteProduct() {
+		Product created = createProduct("LG G6");
+		webTestClient.get().uri(PRODUCT_URL + created.getId()).exchange().expectStatus().isOk();
+
+		webTestClient.delete().uri(PRODUCT_URL + created.getId()).exchange().expectStatus().isOk();
+
+		webTestClient.get().uri(PRODUCT_URL + created.getId()).exchange().expectStatus().isNotFound();
+	}
+}
@@ -0,0 +1,147 @@
+package com.demiglace.springweb.reactive.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Side-by-side closed-model benchmark of the servlet and reactive product APIs.
+ * Each target is driven with the same number of concurrent GETs; thread and
+ * heap figures come from the target's own actuator metrics, so the targets
+ * should run as separate processes. Without benchmark.targets only the
+ * in-process reactive app is measured, and its thread counts then include
+ * the client's own event loop.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class ProductApiBenchmark {
+
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${benchmark.targets:}")
+	private String targets;
+
+	@Value("${benchmark.concurrency:1000}")
+	private int concurrency;
+
+	@Value("${benchmark.requests:100000}")
+	private int requests;
+
+	@Value("${benchmark.seed-products:100}")
+	private int seedProducts;
+
+	private ConnectionProvider connectionProvider;
+	private WebClient webClient;
+
+	@BeforeEach
+	void setUp() {
+		connectionProvider = ConnectionProvider.builder("benchmark")
+				.maxConnections(concurrency)
+				.pendingAcquireMaxCount(-1)
+				.build();
+		webClient = WebClient.builder()
+				.clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+				.build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		connectionProvider.dispose();
+	}
+
+	@Test
+	void benchmarkProductApis() {
+		List<String> report = new ArrayList<>();
+		report.add(String.format("%-10s %9s %9s %9s %9s %9s %10s %9s %9s", "target", "req/s", "p50(ms)", "p99(ms)",
+				"p99.9(ms)", "max(ms)", "threads", "peak", "heap(MB)"));
+		for (Map.Entry<String, String> target : parseTargets().entrySet()) {
+			report.add(run(target.getKey(), target.getValue()));
+		}
+		report.forEach(System.out::println);
+	}
+
+	private String run(String name, String baseUrl) {
+		String productsUrl = baseUrl + "/products/";
+		List<Integer> ids = Flux.range(0, seedProducts)
+				.concatMap(i -> webClient.post().uri(productsUrl)
+						.bodyValue(Map.of("name", "bench-" + i, "description", "benchmark product", "price", 100))
+						.retrieve().bodyToMono(JsonNode.class))
+				.map(node -> node.get("id").asInt())
+				.collectList()
+				.block();
+
+		// warm caches, connections and JIT before measuring
+		drive(productsUrl, ids, Math.min(requests, 10 * concurrency), new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+
+		Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+		long start = System.nanoTime();
+		drive(productsUrl, ids, requests, recorder);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		Histogram histogram = recorder.getIntervalHistogram();
+
+		return String.format("%-10s %9.0f %9.2f %9.2f %9.2f %9.2f %10.0f %9.0f %9.1f", name,
+				histogram.getTotalCount() / seconds,
+				histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+				histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0,
+				metric(baseUrl, "jvm.threads.live", null), metric(baseUrl, "jvm.threads.peak", null),
+				metric(baseUrl, "jvm.memory.used", "area:heap") / (1024 * 1024));
+	}
+
+	private void drive(String productsUrl, List<Integer> ids, int count, Recorder recorder) {
+		Flux.range(0, count)
+				.flatMap(i -> Mono.defer(() -> {
+					long start = System.nanoTime();
+					int id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+					return webClient.get().uri(productsUrl + id)
+							.retrieve().toBodilessEntity()
+							.doOnSuccess(response -> recorder.recordValue(Math.min(
+									TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), HIGHEST_TRACKABLE_MICROS)));
+				}), concurrency)
+				.blockLast();
+	}
+
+	private double metric(String baseUrl, String metric, String tag) {
+		String url = baseUrl + "/actuator/metrics/" + metric + (tag == null ? "" : "?tag=" + tag);
+		JsonNode node = webClient.get().uri(url).retrieve().bodyToMono(JsonNode.class).block();
+		return node.get("measurements").get(0).get("value").asDouble();
+	}
+
+	private Map<String, String> parseTargets() {
+		Map<String, String> parsed = new LinkedHashMap<>();
+		if (targets.isEmpty()) {
+			parsed.put("reactive", "http://localhost:" + port + "/productapi");
+			return parsed;
+		}
+		for (String entry : targets.split(",")) {
+			String[] parts = entry.trim().split("=", 2);
+			parsed.put(parts[0], parts[1]);
+		}
+		return parsed;
+	}
+}
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS product (
+	id INT AUTO_INCREMENT PRIMARY KEY,
+	name VARCHAR(255) NOT NULL,
+	description VARCHAR(100),
+	price INT
+);
@@ -0,0 +1,63 @@
+package com.demiglace.springweb.accesslog;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Writes one structured line per sampled request to the ACCESS_LOG logger.
+ * Slow and failed requests are always written, at WARN so the async appender
+ * keeps them when it starts discarding under pressure.
+ */
+@Component
+public class AccessLogFilter extends OncePerRequestFilter {
+
+	private static final Logger ACCESS_LOG = LoggerFactory.getLogger("ACCESS_LOG");
+	private static final String FORMAT = "method={} uri={} status={} durationMicros={}";
+
+	@Value("${productrestapi.accesslog.enabled:true}")
+	private boolean enabled;
+
+	@Value("${productrestapi.accesslog.sample-rate:0.01}")
+	private double sampleRate;
+
+	@Value("${productrestapi.accesslog.slow-threshold-ms:500}")
+	private long slowThresholdMs;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		if (!enabled) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			filterChain.doFilter(request, response);
+			failed = false;
+		} finally {
+			long elapsed = System.nanoTime() - start;
+			int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+			if (status >= 500 || elapsed >= TimeUnit.MILLISECONDS.toNanos(slowThresholdMs)) {
+				ACCESS_LOG.warn(FORMAT, request.getMethod(), request.getRequestURI(), status,
+						TimeUnit.NANOSECONDS.toMicros(elapsed));
+			} else if (ACCESS_LOG.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+				ACCESS_LOG.info(FORMAT, request.getMethod(), request.getRequestURI(), status,
+						TimeUnit.NANOSECONDS.toMicros(elapsed));
+			}
+		}
+	}
+}
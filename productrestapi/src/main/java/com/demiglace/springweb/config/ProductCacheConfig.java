@@ -1,5 +1,6 @@
 package com.demiglace.springweb.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -8,12 +9,18 @@ import com.hazelcast.config.MapConfig;
 
 @Configuration
 public class ProductCacheConfig {
+
+	@Value("${productrestapi.cache.multicast-enabled:true}")
+	private boolean multicastEnabled;
+
 	@Bean
 	public Config cacheConfig() {
 		
-		return new Config()
+		Config config = new Config()
 				.setInstanceName("hazel-instance")
 				.addMapConfig(new MapConfig().setName("product-cache")
 				.setTimeToLiveSeconds(3000));
+		config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(multicastEnabled);
+		return config;
 	}
 }
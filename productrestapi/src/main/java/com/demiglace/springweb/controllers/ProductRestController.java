@@ -14,10 +14,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.demiglace.springweb.entities.Product;
 import com.demiglace.springweb.repos.ProductRepository;
+import com.demiglace.springweb.search.ProductSearchIndex;
 
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
@@ -35,34 +37,49 @@ public class ProductRestController {
 	@Autowired
 	ProductRepository repository;
 
+	@Autowired
+	ProductSearchIndex searchIndex;
+
 	@RequestMapping(value = "/products/", method = RequestMethod.GET)
 	@Hidden
 	public List<Product> getProducts() {
 		return repository.findAll();
 	}
 
+	@RequestMapping(value = "/products/search", method = RequestMethod.GET)
+	@Operation(summary = "Searches products", description = "prefix search over name and description, ranked by relevance")
+	public List<Product> searchProducts(@Parameter(description = "Search terms") @RequestParam("q") String query,
+			@Parameter(description = "Maximum number of results") @RequestParam(value = "limit", defaultValue = "20") int limit) {
+		return searchIndex.search(query, limit);
+	}
+
 	@Cacheable("product-cache")
 	@Transactional(readOnly = true)
 	@RequestMapping(value = "/products/{id}", method = RequestMethod.GET)
 	@Operation(summary = "Returns a product", description = "takes id, returns single product")
 	public @ApiResponse(description = "Product object") Product getProduct(@Parameter(description = "Id of the product") @PathVariable("id") int id) {
-		LOGGER.info("finding product by ID" + id);
+		LOGGER.info("finding product by ID {}", id);
 		return repository.findById(id).get();
 	}
 
 	@RequestMapping(value = "/products/", method = RequestMethod.POST)
 	public Product createProduct(@Valid @RequestBody Product product) {
-		return repository.save(product);
+		Product saved = repository.save(product);
+		searchIndex.index(saved);
+		return saved;
 	}
 
 	@RequestMapping(value = "/products/", method = RequestMethod.PUT)
 	public Product updateProduct(@RequestBody Product product) {
-		return repository.save(product);
+		Product saved = repository.save(product);
+		searchIndex.index(saved);
+		return saved;
 	}
 
 	@CacheEvict("product-cache")
 	@RequestMapping(value = "/products/{id}", method = RequestMethod.DELETE)
 	public void deleteProduct(@PathVariable("id") int id) {
 		repository.deleteById(id);
+		searchIndex.remove(id);
 	}
 }
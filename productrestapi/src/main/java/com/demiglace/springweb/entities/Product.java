@@ -6,6 +6,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 
@@ -20,7 +21,7 @@ public class Product implements Serializable {
 	private String name;
 	@Size(max = 100)
 	private String description;
-	@Size(min = 1, message = "The minimum price should be 1")
+	@Min(value = 1, message = "The minimum price should be 1")
 	private int price;
 	
 	
@@ -1,9 +1,21 @@
 package com.demiglace.springweb.repos;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.demiglace.springweb.entities.Product;
 
 public interface ProductRepository extends JpaRepository<Product, Integer> {
 
+	@Query("select p from Product p")
+	@QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true") })
+	Stream<Product> streamAll();
 }
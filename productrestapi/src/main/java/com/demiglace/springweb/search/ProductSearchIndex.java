@@ -0,0 +1,184 @@
+package com.demiglace.springweb.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.demiglace.springweb.entities.Product;
+
+/**
+ * In-process inverted index over product name and description. Terms are kept
+ * sorted so a query term matches every indexed term it is a prefix of.
+ */
+@Component
+public class ProductSearchIndex {
+
+	private static final int NAME_WEIGHT = 3;
+	private static final int DESCRIPTION_WEIGHT = 1;
+	private static final int EXACT_MATCH_BOOST = 2;
+
+	private final TreeMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+	private final Map<Integer, Product> documents = new HashMap<>();
+	private final Map<Integer, Set<String>> documentTerms = new HashMap<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	public void index(Product product) {
+		Map<String, Integer> weights = new HashMap<>();
+		for (String term : tokenize(product.getName())) {
+			weights.merge(term, NAME_WEIGHT, Integer::sum);
+		}
+		for (String term : tokenize(product.getDescription())) {
+			weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+		}
+
+		lock.writeLock().lock();
+		try {
+			removeTerms(product.getId());
+			for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+				postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(product.getId(), entry.getValue());
+			}
+			documents.put(product.getId(), copyOf(product));
+			documentTerms.put(product.getId(), weights.keySet());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(int id) {
+		lock.writeLock().lock();
+		try {
+			removeTerms(id);
+			documents.remove(id);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			documents.clear();
+			documentTerms.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns up to {@code limit} products ranked first by how many query terms
+	 * they match, then by weighted term score. Exact term matches score higher
+	 * than prefix matches.
+	 */
+	public List<Product> search(String query, int limit) {
+		List<String> queryTerms = tokenize(query);
+		if (queryTerms.isEmpty() || limit <= 0) {
+			return Collections.emptyList();
+		}
+
+		lock.readLock().lock();
+		try {
+			Map<Integer, Hit> hits = new HashMap<>();
+			for (String queryTerm : new HashSet<>(queryTerms)) {
+				Set<Integer> matchedForTerm = new HashSet<>();
+				Map<String, Map<Integer, Integer>> range = postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false);
+				for (Map.Entry<String, Map<Integer, Integer>> entry : range.entrySet()) {
+					int boost = entry.getKey().equals(queryTerm) ? EXACT_MATCH_BOOST : 1;
+					for (Map.Entry<Integer, Integer> posting : entry.getValue().entrySet()) {
+						Hit hit = hits.computeIfAbsent(posting.getKey(), Hit::new);
+						hit.score += posting.getValue() * boost;
+						if (matchedForTerm.add(posting.getKey())) {
+							hit.matchedTerms++;
+						}
+					}
+				}
+			}
+
+			List<Hit> ranked = new ArrayList<>(hits.values());
+			ranked.sort(Comparator.comparingInt((Hit h) -> h.matchedTerms).reversed()
+					.thenComparing(Comparator.comparingInt((Hit h) -> h.score).reversed())
+					.thenComparingInt(h -> h.id));
+
+			List<Product> results = new ArrayList<>(Math.min(limit, ranked.size()));
+			for (Hit hit : ranked.subList(0, Math.min(limit, ranked.size()))) {
+				results.add(copyOf(documents.get(hit.id)));
+			}
+			return results;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	static List<String> tokenize(String text) {
+		List<String> terms = new ArrayList<>();
+		if (text == null) {
+			return terms;
+		}
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (wordChar && start < 0) {
+				start = i;
+			} else if (!wordChar && start >= 0) {
+				terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+				start = -1;
+			}
+		}
+		return terms;
+	}
+
+	private void removeTerms(int id) {
+		Set<String> terms = documentTerms.remove(id);
+		if (terms == null) {
+			return;
+		}
+		for (String term : terms) {
+			Map<Integer, Integer> docs = postings.get(term);
+			if (docs != null) {
+				docs.remove(id);
+				if (docs.isEmpty()) {
+					postings.remove(term);
+				}
+			}
+		}
+	}
+
+	private static Product copyOf(Product product) {
+		Product copy = new Product();
+		copy.setId(product.getId());
+		copy.setName(product.getName());
+		copy.setDescription(product.getDescription());
+		copy.setPrice(product.getPrice());
+		return copy;
+	}
+
+	private static class Hit {
+		private final int id;
+		private int score;
+		private int matchedTerms;
+
+		Hit(int id) {
+			this.id = id;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.demiglace.springweb.search;
+
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.demiglace.springweb.entities.Product;
+import com.demiglace.springweb.repos.ProductRepository;
+
+@Component
+public class ProductSearchIndexLoader {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ProductSearchIndexLoader.class);
+
+	@Autowired
+	ProductRepository repository;
+
+	@Autowired
+	ProductSearchIndex index;
+
+	@PersistenceContext
+	EntityManager entityManager;
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void rebuild() {
+		index.clear();
+		try (Stream<Product> products = repository.streamAll()) {
+			products.forEach(product -> {
+				index.index(product);
+				// keep the persistence context from growing with the table
+				entityManager.detach(product);
+			});
+		}
+		LOGGER.info("search index rebuilt with {} products", index.size());
+	}
+}
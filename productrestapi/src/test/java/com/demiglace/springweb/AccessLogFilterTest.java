@@ -0,0 +1,107 @@
+package com.demiglace.springweb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.demiglace.springweb.accesslog.AccessLogFilter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+class AccessLogFilterTest {
+
+	private final Logger accessLog = (Logger) LoggerFactory.getLogger("ACCESS_LOG");
+	private final ListAppender<ILoggingEvent> events = new ListAppender<>();
+	private AccessLogFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		events.start();
+		accessLog.addAppender(events);
+		accessLog.setLevel(Level.INFO);
+		filter = new AccessLogFilter();
+		ReflectionTestUtils.setField(filter, "enabled", true);
+		ReflectionTestUtils.setField(filter, "sampleRate", 0.0);
+		ReflectionTestUtils.setField(filter, "slowThresholdMs", 50L);
+	}
+
+	@AfterEach
+	void tearDown() {
+		accessLog.detachAppender(events);
+		accessLog.setLevel(null);
+	}
+
+	private void perform(FilterChain chain) throws Exception {
+		filter.doFilter(new MockHttpServletRequest("GET", "/productapi/products/1"), new MockHttpServletResponse(),
+				chain);
+	}
+
+	@Test
+	void testNormalRequestsAreNotLoggedAtZeroSampleRate() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			perform((request, response) -> {
+			});
+		}
+		assertEquals(0, events.list.size());
+	}
+
+	@Test
+	void testEveryRequestIsLoggedAtFullSampleRate() throws Exception {
+		ReflectionTestUtils.setField(filter, "sampleRate", 1.0);
+		perform((request, response) -> {
+		});
+		assertEquals(1, events.list.size());
+		assertEquals(Level.INFO, events.list.get(0).getLevel());
+	}
+
+	@Test
+	void testServerErrorsAreAlwaysLoggedAtWarn() throws Exception {
+		perform((request, response) -> ((MockHttpServletResponse) response).setStatus(503));
+		assertThrows(ServletException.class, () -> perform((request, response) -> {
+			throw new ServletException("boom");
+		}));
+
+		List<ILoggingEvent> logged = events.list;
+		assertEquals(2, logged.size());
+		logged.forEach(event -> assertEquals(Level.WARN, event.getLevel()));
+		assertTrue(logged.get(0).getFormattedMessage().contains("status=503"));
+		assertTrue(logged.get(1).getFormattedMessage().contains("status=500"));
+	}
+
+	@Test
+	void testSlowRequestsAreAlwaysLoggedAtWarn() throws Exception {
+		perform((request, response) -> {
+			try {
+				Thread.sleep(60);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		assertEquals(1, events.list.size());
+		assertEquals(Level.WARN, events.list.get(0).getLevel());
+		assertTrue(events.list.get(0).getFormattedMessage().contains("status=200"));
+	}
+
+	@Test
+	void testDisabledFilterLogsNothing() throws Exception {
+		ReflectionTestUtils.setField(filter, "enabled", false);
+		perform((request, response) -> ((MockHttpServletResponse) response).setStatus(500));
+		assertEquals(0, events.list.size());
+	}
+}
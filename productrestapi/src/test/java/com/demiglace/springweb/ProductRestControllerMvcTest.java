@@ -21,6 +21,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import com.demiglace.springweb.entities.Product;
 import com.demiglace.springweb.repos.ProductRepository;
+import com.demiglace.springweb.search.ProductSearchIndex;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
@@ -32,6 +33,9 @@ public class ProductRestControllerMvcTest {
 
 	@MockBean
 	private ProductRepository repository;
+
+	@MockBean
+	private ProductSearchIndex searchIndex;
 	
 	private static final String PRODUCT_URL = "/productapi/products/";
 	private static final String CONTEXT_URL = "/productapi";
@@ -0,0 +1,60 @@
+package com.demiglace.springweb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.demiglace.springweb.entities.Product;
+import com.demiglace.springweb.search.ProductSearchIndex;
+
+class ProductSearchIndexTest {
+
+	private ProductSearchIndex index;
+
+	private Product buildProduct(int id, String name, String description) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName(name);
+		product.setDescription(description);
+		product.setPrice(1000);
+		return product;
+	}
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductSearchIndex();
+		index.index(buildProduct(1, "Legion 5", "Gaming Laptop"));
+		index.index(buildProduct(2, "Nitro 5", "Legacy gaming laptop"));
+		index.index(buildProduct(3, "LG G6", "great phone"));
+	}
+
+	@Test
+	void testPrefixSearchRanksNameMatchesFirst() {
+		List<Product> results = index.search("leg", 10);
+		assertEquals(2, results.size());
+		assertEquals("Legion 5", results.get(0).getName());
+		assertEquals("Nitro 5", results.get(1).getName());
+	}
+
+	@Test
+	void testMultiTermQuery() {
+		List<Product> results = index.search("legacy 5", 10);
+		assertEquals(2, results.size());
+		assertEquals(2, results.get(0).getId());
+		assertEquals(1, results.get(1).getId());
+	}
+
+	@Test
+	void testUpdateAndDelete() {
+		index.index(buildProduct(2, "Nitro 5", "budget phone"));
+		assertEquals(1, index.search("laptop", 10).size());
+
+		index.remove(1);
+		assertTrue(index.search("laptop", 10).isEmpty());
+		assertEquals(2, index.size());
+	}
+}
@@ -0,0 +1,265 @@
+package com.demiglace.springweb.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Open-model load generator for the product API. Requests are issued on a
+ * fixed schedule whether or not earlier ones have completed, and latency is
+ * measured from the scheduled send time so a stalled server is not hidden by
+ * the generator slowing down with it.
+ */
+public class ProductLoadGenerator {
+
+	public enum Operation {
+		GET, LIST, CREATE, DELETE
+	}
+
+	private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	private final String baseUrl;
+	private final int maxInFlight;
+	private final Map<Operation, Integer> mix;
+	private final int totalWeight;
+	private final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+	private final HttpClient client = HttpClient.newBuilder().executor(executor).connectTimeout(Duration.ofSeconds(5)).build();
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+	private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger sequence = new AtomicInteger();
+
+	private final List<Integer> seededIds = new CopyOnWriteArrayList<>();
+	private final ConcurrentLinkedDeque<Integer> createdIds = new ConcurrentLinkedDeque<>();
+
+	public ProductLoadGenerator(String baseUrl, Map<Operation, Integer> mix, int maxInFlight) {
+		this.baseUrl = baseUrl;
+		this.mix = mix;
+		this.maxInFlight = maxInFlight;
+		this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+		for (Operation operation : Operation.values()) {
+			recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+			errors.put(operation, new AtomicLong());
+		}
+	}
+
+	public static Map<Operation, Integer> parseMix(String mix) {
+		Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+		for (String entry : mix.split(",")) {
+			String[] parts = entry.trim().split(":");
+			weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+		}
+		return weights;
+	}
+
+	public void seed(int count) throws Exception {
+		for (int i = 0; i < count; i++) {
+			HttpResponse<String> response = client.send(createRequest(), HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() / 100 != 2) {
+				throw new IllegalStateException(
+						"Seeding failed with status " + response.statusCode() + ": " + response.body());
+			}
+			seededIds.add(mapper.readTree(response.body()).get("id").asInt());
+		}
+	}
+
+	public Report run(int ratePerSecond, Duration warmup, Duration duration) {
+		drive(ratePerSecond, warmup);
+		reset();
+		long start = System.nanoTime();
+		drive(ratePerSecond, duration);
+		awaitInFlight();
+		long elapsed = System.nanoTime() - start;
+
+		Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+		Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+		for (Operation operation : Operation.values()) {
+			histograms.put(operation, recorders.get(operation).getIntervalHistogram());
+			errorCounts.put(operation, errors.get(operation).get());
+		}
+		return new Report(histograms, errorCounts, dropped.get(), elapsed);
+	}
+
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private void drive(int ratePerSecond, Duration duration) {
+		long interval = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+		long start = System.nanoTime();
+		long end = start + duration.toNanos();
+		for (long intended = start; intended < end; intended += interval) {
+			long wait = intended - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			if (inFlight.get() >= maxInFlight) {
+				dropped.incrementAndGet();
+				continue;
+			}
+			issue(pickOperation(), intended);
+		}
+	}
+
+	private void issue(Operation operation, long intended) {
+		HttpRequest request;
+		Integer deleteId = null;
+		switch (operation) {
+		case GET:
+			request = HttpRequest.newBuilder(URI.create(baseUrl + randomSeededId())).GET().build();
+			break;
+		case LIST:
+			request = HttpRequest.newBuilder(URI.create(baseUrl)).GET().build();
+			break;
+		case DELETE:
+			deleteId = createdIds.pollFirst();
+			if (deleteId == null) {
+				operation = Operation.CREATE;
+				request = createRequest();
+			} else {
+				request = HttpRequest.newBuilder(URI.create(baseUrl + deleteId)).DELETE().build();
+			}
+			break;
+		default:
+			request = createRequest();
+		}
+
+		Operation op = operation;
+		inFlight.incrementAndGet();
+		CompletableFuture<HttpResponse<String>> future = client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+		future.whenComplete((response, failure) -> {
+			long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+			recorders.get(op).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+			if (failure != null || response.statusCode() >= 400) {
+				errors.get(op).incrementAndGet();
+			} else if (op == Operation.CREATE) {
+				rememberCreated(response.body());
+			}
+			inFlight.decrementAndGet();
+		});
+	}
+
+	private HttpRequest createRequest() {
+		String body = "{\"name\":\"load-" + sequence.incrementAndGet()
+				+ "\",\"description\":\"load test product\",\"price\":100}";
+		return HttpRequest.newBuilder(URI.create(baseUrl))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+	}
+
+	private void rememberCreated(String body) {
+		try {
+			createdIds.addLast(mapper.readTree(body).get("id").asInt());
+		} catch (Exception e) {
+			errors.get(Operation.CREATE).incrementAndGet();
+		}
+	}
+
+	private Operation pickOperation() {
+		int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+		for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+			pick -= entry.getValue();
+			if (pick < 0) {
+				return entry.getKey();
+			}
+		}
+		return Operation.GET;
+	}
+
+	private int randomSeededId() {
+		return seededIds.get(ThreadLocalRandom.current().nextInt(seededIds.size()));
+	}
+
+	private void reset() {
+		awaitInFlight();
+		for (Operation operation : Operation.values()) {
+			recorders.get(operation).reset();
+			errors.get(operation).set(0);
+		}
+		dropped.set(0);
+	}
+
+	private void awaitInFlight() {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+	}
+
+	public static class Report {
+		private final Map<Operation, Histogram> histograms;
+		private final Map<Operation, Long> errors;
+		private final long dropped;
+		private final long elapsedNanos;
+
+		Report(Map<Operation, Histogram> histograms, Map<Operation, Long> errors, long dropped, long elapsedNanos) {
+			this.histograms = histograms;
+			this.errors = errors;
+			this.dropped = dropped;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		public Histogram getHistogram(Operation operation) {
+			return histograms.get(operation);
+		}
+
+		public long getErrors() {
+			return errors.values().stream().mapToLong(Long::longValue).sum();
+		}
+
+		public long getDropped() {
+			return dropped;
+		}
+
+		public long getTotalCount() {
+			return histograms.values().stream().mapToLong(Histogram::getTotalCount).sum();
+		}
+
+		public double getThroughput() {
+			return getTotalCount() / (elapsedNanos / 1e9);
+		}
+
+		public List<String> format() {
+			List<String> lines = new ArrayList<>();
+			lines.add(String.format("%-7s %9s %9s %9s %9s %9s %9s %7s", "op", "count", "p50(ms)", "p90(ms)",
+					"p99(ms)", "p99.9(ms)", "max(ms)", "errors"));
+			for (Operation operation : Operation.values()) {
+				Histogram h = histograms.get(operation);
+				if (h.getTotalCount() == 0) {
+					continue;
+				}
+				lines.add(String.format("%-7s %9d %9.2f %9.2f %9.2f %9.2f %9.2f %7d", operation, h.getTotalCount(),
+						h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(90) / 1000.0,
+						h.getValueAtPercentile(99) / 1000.0, h.getValueAtPercentile(99.9) / 1000.0,
+						h.getMaxValue() / 1000.0, errors.get(operation)));
+			}
+			lines.add(String.format("throughput=%.1f req/s dropped=%d", getThroughput(), dropped));
+			return lines;
+		}
+	}
+}
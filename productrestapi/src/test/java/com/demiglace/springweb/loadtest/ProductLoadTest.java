@@ -0,0 +1,70 @@
+package com.demiglace.springweb.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.demiglace.springweb.loadtest.ProductLoadGenerator.Operation;
+import com.demiglace.springweb.loadtest.ProductLoadGenerator.Report;
+
+@Tag("load")
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class ProductLoadTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${server.servlet.context-path}")
+	private String contextPath;
+
+	@Value("${loadtest.rate}")
+	private int rate;
+
+	@Value("${loadtest.warmup-seconds}")
+	private int warmupSeconds;
+
+	@Value("${loadtest.duration-seconds}")
+	private int durationSeconds;
+
+	@Value("${loadtest.mix}")
+	private String mix;
+
+	@Value("${loadtest.seed-products}")
+	private int seedProducts;
+
+	@Value("${loadtest.max-in-flight}")
+	private int maxInFlight;
+
+	@Value("${loadtest.p99-max-ms:0}")
+	private double p99MaxMs;
+
+	@Test
+	void testProductApiUnderLoad() throws Exception {
+		String baseUrl = "http://localhost:" + port + contextPath + "/products/";
+		ProductLoadGenerator generator = new ProductLoadGenerator(baseUrl, ProductLoadGenerator.parseMix(mix), maxInFlight);
+		try {
+			generator.seed(seedProducts);
+			Report report = generator.run(rate, Duration.ofSeconds(warmupSeconds), Duration.ofSeconds(durationSeconds));
+			report.format().forEach(System.out::println);
+
+			assertEquals(0, report.getErrors());
+			assertEquals(0, report.getDropped());
+			if (p99MaxMs > 0) {
+				double p99 = report.getHistogram(Operation.GET).getValueAtPercentile(99) / 1000.0;
+				assertTrue(p99 <= p99MaxMs, "GET p99 " + p99 + "ms exceeds " + p99MaxMs + "ms");
+			}
+		} finally {
+			generator.shutdown();
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.demiglace.springboot.reactive;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public class OrderBatchConsumer implements Consumer<List<String>> {
+	private final Consumer<String> orderConsumer;
+
+	public OrderBatchConsumer(Consumer<String> orderConsumer) {
+		this.orderConsumer = orderConsumer;
+	}
+
+	@Override
+	public void accept(List<String> orders) {
+		orders.forEach(orderConsumer);
+	}
+}
@@ -0,0 +1,44 @@
+package com.demiglace.springboot.reactive;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.demiglace.springboot.reactive.metrics.PipelineMetrics;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class OrderIngestionConfig {
+
+	@Value("${orders.batch-size:500}")
+	private int batchSize;
+
+	@Value("${orders.batch-latency-millis:50}")
+	private long batchLatencyMillis;
+
+	@Value("${orders.max-concurrency:4}")
+	private int maxConcurrency;
+
+	@Value("${orders.max-pending:10000}")
+	private int maxPending;
+
+	@Value("${orders.drain-timeout-millis:10000}")
+	private long drainTimeoutMillis;
+
+	@Bean(destroyMethod = "dispose")
+	public Scheduler orderScheduler(PipelineMetrics metrics) {
+		// taking PipelineMetrics makes sure scheduler metrics are enabled first
+		return Schedulers.newBoundedElastic(maxConcurrency, Integer.MAX_VALUE, "order-batch");
+	}
+
+	@Bean(destroyMethod = "dispose")
+	public OrderIngestionPipeline orderIngestionPipeline(Scheduler orderScheduler) {
+		return new OrderIngestionPipeline(new OrderBatchConsumer(new OrderConsumer()), batchSize,
+				Duration.ofMillis(batchLatencyMillis), maxConcurrency, maxPending,
+				Duration.ofMillis(drainTimeoutMillis), orderScheduler);
+	}
+}
@@ -0,0 +1,151 @@
+package com.demiglace.springboot.reactive;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Collects orders pushed by any number of producer threads, groups them into
+ * batches of up to {@code maxBatchSize} orders or whatever arrived within
+ * {@code maxBatchLatency}, and hands each batch to the batch consumer with at
+ * most {@code maxConcurrency} batches in flight.
+ * <p>
+ * Every accepted order holds a permit until the batch containing it has been
+ * consumed, so at most {@code maxPendingOrders} orders are ever buffered and
+ * producers are refused (or wait) once the consumer falls behind.
+ * <p>
+ * Producers emit through a serialized {@link FluxSink}, so concurrent offers
+ * queue behind one another instead of spinning.
+ */
+public class OrderIngestionPipeline implements Disposable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrderIngestionPipeline.class);
+
+	private static final Duration DEFAULT_DRAIN_TIMEOUT = Duration.ofSeconds(10);
+
+	private final Semaphore permits;
+	private final Duration drainTimeout;
+	private final ReadWriteLock completion = new ReentrantReadWriteLock();
+	private final CountDownLatch terminated = new CountDownLatch(1);
+	private final Disposable subscription;
+	private FluxSink<String> sink;
+	private boolean completed;
+
+	public OrderIngestionPipeline(Consumer<List<String>> batchConsumer, int maxBatchSize, Duration maxBatchLatency,
+			int maxConcurrency, int maxPendingOrders, Scheduler scheduler) {
+		this(batchConsumer, maxBatchSize, maxBatchLatency, maxConcurrency, maxPendingOrders, DEFAULT_DRAIN_TIMEOUT,
+				scheduler);
+	}
+
+	public OrderIngestionPipeline(Consumer<List<String>> batchConsumer, int maxBatchSize, Duration maxBatchLatency,
+			int maxConcurrency, int maxPendingOrders, Duration drainTimeout, Scheduler scheduler) {
+		this.permits = new Semaphore(maxPendingOrders);
+		this.drainTimeout = drainTimeout;
+		// Flux.create hands over its sink during subscribe(), before this constructor returns
+		this.subscription = Flux.<String>create(emitter -> sink = emitter, FluxSink.OverflowStrategy.BUFFER)
+				.bufferTimeout(maxBatchSize, maxBatchLatency)
+				// bufferTimeout can emit on its timer without demand; the permits bound this buffer
+				.onBackpressureBuffer()
+				.flatMap(batch -> Mono.fromRunnable(() -> batchConsumer.accept(batch))
+						.subscribeOn(scheduler)
+						.doOnError(e -> LOGGER.error("order batch of {} failed", batch.size(), e))
+						.onErrorResume(e -> Mono.empty())
+						.doFinally(signal -> permits.release(batch.size())), maxConcurrency)
+				// orders or batches dropped by a cancelled pipeline give their permits back
+				.doOnDiscard(Object.class, this::releaseDiscarded)
+				.doFinally(signal -> terminated.countDown())
+				.subscribe();
+	}
+
+	/**
+	 * Accepts the order if there is room, without waiting.
+	 */
+	public boolean offer(String order) {
+		return permits.tryAcquire() && emit(order);
+	}
+
+	/**
+	 * Accepts the order, waiting up to {@code timeout} for the consumer to make
+	 * room.
+	 */
+	public boolean offer(String order, Duration timeout) throws InterruptedException {
+		return permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS) && emit(order);
+	}
+
+	public int getAvailableCapacity() {
+		return permits.availablePermits();
+	}
+
+	/**
+	 * Stops accepting orders; whatever is already buffered is still consumed.
+	 */
+	public void complete() {
+		completion.writeLock().lock();
+		try {
+			if (!completed) {
+				completed = true;
+				sink.complete();
+			}
+		} finally {
+			completion.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Stops accepting orders and waits up to the drain timeout for the
+	 * buffered ones to be consumed. Orders still buffered after that are
+	 * dropped and logged.
+	 */
+	@Override
+	public void dispose() {
+		complete();
+		try {
+			if (!terminated.await(drainTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+				LOGGER.warn("order pipeline not drained within {}; dropping buffered orders", drainTimeout);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		subscription.dispose();
+	}
+
+	@Override
+	public boolean isDisposed() {
+		return subscription.isDisposed();
+	}
+
+	private boolean emit(String order) {
+		// producers share the read lock; complete() takes the write lock so no order lands after it
+		completion.readLock().lock();
+		try {
+			if (completed || sink.isCancelled()) {
+				permits.release();
+				return false;
+			}
+			sink.next(order);
+			return true;
+		} finally {
+			completion.readLock().unlock();
+		}
+	}
+
+	private void releaseDiscarded(Object discarded) {
+		int orders = discarded instanceof List ? ((List<?>) discarded).size() : 1;
+		LOGGER.warn("dropped {} buffered orders", orders);
+		permits.release(orders);
+	}
+}
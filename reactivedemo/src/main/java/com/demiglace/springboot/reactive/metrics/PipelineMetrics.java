@@ -0,0 +1,72 @@
+package com.demiglace.springboot.reactive.metrics;
+
+import java.util.function.Function;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Names, tags and meters reactive pipelines through Reactor's Micrometer
+ * integration: subscriptions, requested demand, onNext delay and
+ * subscribe-to-terminate duration per named flow. When enabled it also turns
+ * on Reactor's executor metrics (queued and active tasks) for schedulers
+ * created afterwards, so beans that create schedulers should depend on it,
+ * and turns them off again when closed, since the switch is JVM-wide.
+ * When disabled the transformers return the publisher untouched and nothing
+ * is added to the assembly.
+ */
+@Component
+public class PipelineMetrics {
+
+	private final boolean enabled;
+
+	public PipelineMetrics(@Value("${reactivedemo.metrics.enabled:false}") boolean enabled) {
+		this.enabled = enabled;
+		if (enabled) {
+			Schedulers.enableMetrics();
+		}
+	}
+
+	@PreDestroy
+	public void close() {
+		if (enabled) {
+			Schedulers.disableMetrics();
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public <T> Function<Flux<T>, Flux<T>> flux(String name, String... tags) {
+		if (!enabled) {
+			return Function.identity();
+		}
+		return flux -> {
+			Flux<T> named = flux.name(name);
+			for (int i = 0; i + 1 < tags.length; i += 2) {
+				named = named.tag(tags[i], tags[i + 1]);
+			}
+			return named.metrics();
+		};
+	}
+
+	public <T> Function<Mono<T>, Mono<T>> mono(String name, String... tags) {
+		if (!enabled) {
+			return Function.identity();
+		}
+		return mono -> {
+			Mono<T> named = mono.name(name);
+			for (int i = 0; i + 1 < tags.length; i += 2) {
+				named = named.tag(tags[i], tags[i + 1]);
+			}
+			return named.metrics();
+		};
+	}
+}
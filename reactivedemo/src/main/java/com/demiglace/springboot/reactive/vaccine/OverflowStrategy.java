@@ -0,0 +1,23 @@
+package com.demiglace.springboot.reactive.vaccine;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public enum OverflowStrategy {
+	BUFFER, DROP, LATEST;
+
+	public static OverflowStrategy from(String value) {
+		try {
+			return valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			String accepted = Arrays.stream(values())
+					.map(strategy -> strategy.name().toLowerCase(Locale.ROOT))
+					.collect(Collectors.joining(", "));
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "overflow must be one of " + accepted);
+		}
+	}
+}
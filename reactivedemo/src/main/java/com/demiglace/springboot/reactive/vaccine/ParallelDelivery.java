@@ -0,0 +1,37 @@
+package com.demiglace.springboot.reactive.vaccine;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+/**
+ * Fans a per-element step out over {@code parallelism} rails on the given
+ * scheduler. With {@code preserveOrder} elements are tagged with their source
+ * index and the rails are merged back in that order; otherwise results are
+ * emitted as soon as any rail produces them.
+ */
+public final class ParallelDelivery {
+
+	private ParallelDelivery() {
+	}
+
+	public static <T, R> Flux<R> apply(Flux<T> source, Function<T, R> step, int parallelism, Scheduler scheduler,
+			boolean preserveOrder) {
+		if (!preserveOrder) {
+			return source.parallel(parallelism)
+					.runOn(scheduler)
+					.map(step)
+					.sequential();
+		}
+		return source.index()
+				.parallel(parallelism)
+				.runOn(scheduler)
+				.map(indexed -> Tuples.of(indexed.getT1(), step.apply(indexed.getT2())))
+				.ordered(Comparator.comparingLong((Tuple2<Long, R> indexed) -> indexed.getT1()))
+				.map(Tuple2::getT2);
+	}
+}
@@ -0,0 +1,66 @@
+package com.demiglace.springboot.reactive.vaccine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class StreamSubscriberStats {
+	private final long id;
+	private final OverflowStrategy overflow;
+	private final LongAdder received = new LongAdder();
+	private final LongAdder delivered = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder requested = new LongAdder();
+
+	public StreamSubscriberStats(long id, OverflowStrategy overflow) {
+		this.id = id;
+		this.overflow = overflow;
+	}
+
+	void onReceived() {
+		received.increment();
+	}
+
+	void onDelivered() {
+		delivered.increment();
+	}
+
+	void onDropped() {
+		dropped.increment();
+	}
+
+	void onRequested(long n) {
+		// an unbounded request is Long.MAX_VALUE; don't let the sum overflow
+		if (n == Long.MAX_VALUE) {
+			requested.add(Long.MAX_VALUE - requested.sum());
+		} else {
+			requested.add(n);
+		}
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public OverflowStrategy getOverflow() {
+		return overflow;
+	}
+
+	public long getReceived() {
+		return received.sum();
+	}
+
+	public long getDelivered() {
+		return delivered.sum();
+	}
+
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	public long getRequested() {
+		return requested.sum();
+	}
+
+	public long getLag() {
+		return getReceived() - getDropped() - getDelivered();
+	}
+}
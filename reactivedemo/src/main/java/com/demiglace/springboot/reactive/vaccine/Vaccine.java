@@ -1,32 +1,64 @@
 package com.demiglace.springboot.reactive.vaccine;
 
-public class Vaccine {
-	private String name;
-	private boolean delivered;
+import java.util.Objects;
+
+/**
+ * Immutable vaccine shipment. Identity is the vaccine name plus the optional
+ * shipment id; the delivered flag is state and does not take part in
+ * equality.
+ */
+public final class Vaccine {
+	private final String name;
+	private final Long shipmentId;
+	private final boolean delivered;
 	
+	public Vaccine(String name) {
+		this(name, null, false);
+	}
+
+	public Vaccine(String name, Long shipmentId) {
+		this(name, shipmentId, false);
+	}
+
+	public Vaccine(String name, Long shipmentId, boolean delivered) {
+		this.name = name;
+		this.shipmentId = shipmentId;
+		this.delivered = delivered;
+	}
+
+	public Vaccine withDelivered(boolean delivered) {
+		return delivered == this.delivered ? this : new Vaccine(name, shipmentId, delivered);
+	}
+
 	@Override
 	public boolean equals(Object obj) {
-		Vaccine vaccine = null;
-		if (obj instanceof Vaccine) {
-			vaccine = (Vaccine)obj;
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Vaccine)) {
+			return false;
 		}
-		return this.name.equals(vaccine.name);
+		Vaccine vaccine = (Vaccine) obj;
+		return Objects.equals(name, vaccine.name) && Objects.equals(shipmentId, vaccine.shipmentId);
 	}
-	
-	public Vaccine(String name) {
-		this.name = name;
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name, shipmentId);
 	}
 	
 	public String getName() {
 		return name;
 	}
-	public void setName(String name) {
-		this.name = name;
+	public Long getShipmentId() {
+		return shipmentId;
 	}
 	public boolean isDelivered() {
 		return delivered;
 	}
-	public void setDelivered(boolean delivered) {
-		this.delivered = delivered;
+
+	@Override
+	public String toString() {
+		return "Vaccine [name=" + name + ", shipmentId=" + shipmentId + ", delivered=" + delivered + "]";
 	}
 }
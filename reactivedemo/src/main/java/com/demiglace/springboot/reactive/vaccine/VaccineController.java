@@ -1,9 +1,17 @@
 package com.demiglace.springboot.reactive.vaccine;
 
+import java.util.Collection;
+import java.util.Locale;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.demiglace.springboot.reactive.metrics.PipelineMetrics;
+
 import reactor.core.publisher.Flux;
 
 @RestController
@@ -11,9 +19,31 @@ public class VaccineController {
 
 	@Autowired
 	private VaccineService service;
+
+	@Autowired
+	private VaccineShipmentFeed feed;
+
+	@Autowired
+	private PipelineMetrics metrics;
+
+	@Value("${vaccine.stream.overflow:drop}")
+	private String defaultOverflow;
 	
 	@GetMapping("/vaccines")
 	public Flux<Vaccine> getVaccines() {
-		return service.getVaccines();
+		return service.getVaccines().transform(metrics.flux("vaccine.controller"));
+	}
+
+	@GetMapping(value = "/vaccines/stream", produces = { MediaType.TEXT_EVENT_STREAM_VALUE,
+			MediaType.APPLICATION_NDJSON_VALUE })
+	public Flux<Vaccine> streamVaccines(@RequestParam(value = "overflow", required = false) String overflow) {
+		OverflowStrategy strategy = OverflowStrategy.from(overflow == null ? defaultOverflow : overflow);
+		return feed.stream(strategy)
+				.transform(metrics.flux("vaccine.stream", "overflow", strategy.name().toLowerCase(Locale.ROOT)));
+	}
+
+	@GetMapping("/vaccines/stream/subscribers")
+	public Collection<StreamSubscriberStats> getStreamSubscribers() {
+		return feed.getSubscribers();
 	}
 }
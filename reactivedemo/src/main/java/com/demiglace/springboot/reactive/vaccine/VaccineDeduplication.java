@@ -0,0 +1,25 @@
+package com.demiglace.springboot.reactive.vaccine;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import reactor.core.publisher.Flux;
+
+public final class VaccineDeduplication {
+
+	private VaccineDeduplication() {
+	}
+
+	/**
+	 * Drops vaccines equal to one already seen within {@code window}, keeping at
+	 * most {@code maxKeys} vaccines in memory per subscription. A duplicate that
+	 * arrives after its original has been forgotten is let through. Use with
+	 * {@link Flux#transform(Function)}.
+	 */
+	public static Function<Flux<Vaccine>, Flux<Vaccine>> within(Duration window, int maxKeys) {
+		return vaccines -> vaccines.distinct(Function.identity(),
+				() -> new WindowedKeySet<Vaccine>(window, maxKeys),
+				WindowedKeySet::add,
+				WindowedKeySet::clear);
+	}
+}
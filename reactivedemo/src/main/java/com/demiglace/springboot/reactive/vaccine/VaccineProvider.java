@@ -1,22 +1,70 @@
 package com.demiglace.springboot.reactive.vaccine;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.demiglace.springboot.reactive.metrics.PipelineMetrics;
+
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 @Component
 public class VaccineProvider {
 
 	@Autowired
 	private VaccineService service;
+
+	@Autowired
+	private PipelineMetrics metrics;
+
+	@Value("${vaccine.delivery.parallel:false}")
+	private boolean parallel;
+
+	@Value("${vaccine.delivery.preserve-order:true}")
+	private boolean preserveOrder;
+
+	@Value("${vaccine.delivery.parallelism:0}")
+	private int parallelism;
+
+	@Value("${vaccine.delivery.queue-capacity:100000}")
+	private int queueCapacity;
+
+	private Scheduler deliveryScheduler;
+
+	@PostConstruct
+	public void init() {
+		if (parallelism <= 0) {
+			parallelism = Runtime.getRuntime().availableProcessors();
+		}
+		// delivery may block on remote services, so give it its own capped pool
+		deliveryScheduler = Schedulers.newBoundedElastic(parallelism, queueCapacity, "vaccine-delivery");
+	}
+
+	@PreDestroy
+	public void destroy() {
+		deliveryScheduler.dispose();
+	}
 	
 	private Vaccine deliver(Vaccine vaccine) {
-		vaccine.setDelivered(true);
-		return vaccine;
+		return vaccine.withDelivered(true);
 	}
 	
 	public Flux<Vaccine> provideVaccines() {
-		return service.getVaccines().map(this::deliver);
+		if (parallel) {
+			return provideVaccinesInParallel(preserveOrder);
+		}
+		return service.getVaccines().map(this::deliver)
+				.transform(metrics.flux("vaccine.provider", "mode", "sequential"));
+	}
+
+	public Flux<Vaccine> provideVaccinesInParallel(boolean preserveOrder) {
+		return ParallelDelivery.apply(service.getVaccines(), this::deliver, parallelism, deliveryScheduler,
+				preserveOrder)
+				.transform(metrics.flux("vaccine.provider", "mode", preserveOrder ? "parallel-ordered" : "parallel"));
 	}
 }
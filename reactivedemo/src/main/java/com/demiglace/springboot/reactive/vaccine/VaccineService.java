@@ -1,13 +1,20 @@
 package com.demiglace.springboot.reactive.vaccine;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.demiglace.springboot.reactive.metrics.PipelineMetrics;
+
 import reactor.core.publisher.Flux;
 
 @Service
 public class VaccineService {
 
+	@Autowired
+	private PipelineMetrics metrics;
+
 	public Flux<Vaccine> getVaccines() {
-		return Flux.just(new Vaccine("Pfizer"), new Vaccine("J&J"), new Vaccine("Moderna"));
+		return Flux.just(new Vaccine("Pfizer"), new Vaccine("J&J"), new Vaccine("Moderna"))
+				.transform(metrics.flux("vaccine.service"));
 	}
 }
@@ -0,0 +1,83 @@
+package com.demiglace.springboot.reactive.vaccine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+
+/**
+ * Continuous, shared feed of vaccine shipments. Every subscriber gets its own
+ * bounded overflow stage right after the shared source, so a slow consumer
+ * loses shipments instead of holding up the feed or growing a server-side
+ * buffer.
+ */
+@Component
+public class VaccineShipmentFeed {
+
+	private static final List<String> NAMES = Arrays.asList("Pfizer", "J&J", "Moderna", "AstraZeneca", "Sinovac");
+
+	private final Flux<Vaccine> shipments;
+	private final int bufferSize;
+	private final AtomicLong subscriberIds = new AtomicLong();
+	private final Map<Long, StreamSubscriberStats> subscribers = new ConcurrentHashMap<>();
+
+	public VaccineShipmentFeed(@Value("${vaccine.stream.rate-per-second:10000}") int ratePerSecond,
+			@Value("${vaccine.stream.tick-millis:10}") long tickMillis,
+			@Value("${vaccine.stream.buffer-size:256}") int bufferSize) {
+		this.bufferSize = bufferSize;
+		int perTick = Math.max(1, (int) (ratePerSecond * tickMillis / 1000));
+		AtomicLong sequence = new AtomicLong();
+		this.shipments = Flux.interval(Duration.ofMillis(tickMillis))
+				.onBackpressureDrop()
+				.flatMapIterable(tick -> {
+					List<Vaccine> batch = new ArrayList<>(perTick);
+					for (int i = 0; i < perTick; i++) {
+						long shipmentId = sequence.getAndIncrement();
+						batch.add(new Vaccine(NAMES.get((int) (shipmentId % NAMES.size())), shipmentId));
+					}
+					return batch;
+				})
+				.share();
+	}
+
+	public Flux<Vaccine> stream(OverflowStrategy overflow) {
+		return Flux.defer(() -> {
+			StreamSubscriberStats stats = new StreamSubscriberStats(subscriberIds.incrementAndGet(), overflow);
+			subscribers.put(stats.getId(), stats);
+
+			Flux<Vaccine> source = shipments.doOnNext(vaccine -> stats.onReceived());
+			Flux<Vaccine> bounded;
+			switch (overflow) {
+			case BUFFER:
+				bounded = source.onBackpressureBuffer(bufferSize, vaccine -> stats.onDropped(),
+						BufferOverflowStrategy.DROP_OLDEST);
+				break;
+			case LATEST:
+				// same as onBackpressureLatest, but with a hook to count what is replaced
+				bounded = source.onBackpressureBuffer(1, vaccine -> stats.onDropped(),
+						BufferOverflowStrategy.DROP_OLDEST);
+				break;
+			default:
+				bounded = source.onBackpressureDrop(vaccine -> stats.onDropped());
+			}
+
+			return bounded.doOnRequest(stats::onRequested)
+					.doOnNext(vaccine -> stats.onDelivered())
+					.doFinally(signal -> subscribers.remove(stats.getId()));
+		});
+	}
+
+	public Collection<StreamSubscriberStats> getSubscribers() {
+		return subscribers.values();
+	}
+}
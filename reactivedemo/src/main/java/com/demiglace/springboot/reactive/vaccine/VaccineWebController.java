@@ -1,9 +1,11 @@
 package com.demiglace.springboot.reactive.vaccine;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.thymeleaf.spring5.context.webflux.ReactiveDataDriverContextVariable;
 
 import reactor.core.publisher.Mono;
 
@@ -12,9 +14,13 @@ public class VaccineWebController {
 	@Autowired
 	private VaccineService service;
 
+	@Value("${vaccine.web.buffer-size:10}")
+	private int bufferSize;
+
 	@GetMapping("/")
 	public Mono<String> getVaccines(Model model) {
-		model.addAttribute("vaccines", service.getVaccines());
+		// data-driven mode: rows are rendered and flushed every bufferSize vaccines
+		model.addAttribute("vaccines", new ReactiveDataDriverContextVariable(service.getVaccines(), bufferSize));
 		return Mono.just("index");
 	}
 }
@@ -0,0 +1,67 @@
+package com.demiglace.springboot.reactive.vaccine;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Set of recently seen keys that forgets a key once it is older than the
+ * window, and forgets the oldest keys first once it holds {@code maxKeys}.
+ * Memory is bounded by {@code maxKeys} no matter how many keys are offered.
+ * Not thread-safe; Reactor calls it serially within one subscription.
+ */
+public class WindowedKeySet<K> {
+	private final long windowNanos;
+	private final int maxKeys;
+	private final LongSupplier nanoClock;
+	private final LinkedHashMap<K, Long> seen;
+
+	public WindowedKeySet(Duration window, int maxKeys) {
+		this(window, maxKeys, System::nanoTime);
+	}
+
+	public WindowedKeySet(Duration window, int maxKeys, LongSupplier nanoClock) {
+		this.windowNanos = window.toNanos();
+		this.maxKeys = maxKeys;
+		this.nanoClock = nanoClock;
+		this.seen = new LinkedHashMap<K, Long>() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Long> eldest) {
+				return size() > WindowedKeySet.this.maxKeys;
+			}
+		};
+	}
+
+	/**
+	 * Returns true if the key was not seen within the window, and records it.
+	 */
+	public boolean add(K key) {
+		long now = nanoClock.getAsLong();
+		expire(now);
+		if (seen.containsKey(key)) {
+			return false;
+		}
+		seen.put(key, now);
+		return true;
+	}
+
+	public int size() {
+		return seen.size();
+	}
+
+	public void clear() {
+		seen.clear();
+	}
+
+	private void expire(long now) {
+		// insertion order is arrival order, so expired keys are all at the head
+		Iterator<Long> arrivals = seen.values().iterator();
+		while (arrivals.hasNext() && now - arrivals.next() > windowNanos) {
+			arrivals.remove();
+		}
+	}
+}
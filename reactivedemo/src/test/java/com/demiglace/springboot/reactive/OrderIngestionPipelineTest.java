@@ -0,0 +1,133 @@
+package com.demiglace.springboot.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+class OrderIngestionPipelineTest {
+
+	private final Scheduler scheduler = Schedulers.newBoundedElastic(2, 1000, "test-orders");
+	private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		scheduler.dispose();
+	}
+
+	@Test
+	void testBatchesBySizeFromManyProducers() throws InterruptedException {
+		OrderIngestionPipeline pipeline = new OrderIngestionPipeline(batches::add, 100, Duration.ofSeconds(10), 2,
+				10000, scheduler);
+		ExecutorService producers = Executors.newFixedThreadPool(4);
+		for (int p = 0; p < 4; p++) {
+			int producer = p;
+			producers.submit(() -> {
+				for (int i = 0; i < 250; i++) {
+					pipeline.offer("order-" + producer + "-" + i);
+				}
+			});
+		}
+		producers.shutdown();
+		assertTrue(producers.awaitTermination(5, TimeUnit.SECONDS));
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (batches.stream().mapToInt(List::size).sum() < 1000 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(10, batches.size());
+		batches.forEach(batch -> assertEquals(100, batch.size()));
+		pipeline.dispose();
+	}
+
+	@Test
+	void testPartialBatchFlushedAfterLatency() throws InterruptedException {
+		CountDownLatch flushed = new CountDownLatch(1);
+		OrderIngestionPipeline pipeline = new OrderIngestionPipeline(batch -> {
+			batches.add(batch);
+			flushed.countDown();
+		}, 100, Duration.ofMillis(50), 2, 10000, scheduler);
+		pipeline.offer("Legion 5");
+		pipeline.offer("Nitro 5");
+		assertTrue(flushed.await(2, TimeUnit.SECONDS));
+		assertEquals(List.of("Legion 5", "Nitro 5"), batches.get(0));
+		pipeline.dispose();
+	}
+
+	@Test
+	void testProducersRefusedWhenConsumerFallsBehind() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		OrderIngestionPipeline pipeline = new OrderIngestionPipeline(batch -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, 5, Duration.ofMillis(10), 1, 20, scheduler);
+
+		int accepted = 0;
+		for (int i = 0; i < 100; i++) {
+			if (pipeline.offer("order-" + i)) {
+				accepted++;
+			}
+		}
+		assertEquals(20, accepted);
+		assertFalse(pipeline.offer("order-overflow", Duration.ofMillis(50)));
+
+		release.countDown();
+		assertTrue(pipeline.offer("order-after-release", Duration.ofSeconds(2)));
+		pipeline.dispose();
+	}
+
+	@Test
+	void testDisposeDrainsAcceptedOrders() {
+		OrderIngestionPipeline pipeline = new OrderIngestionPipeline(batch -> {
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			batches.add(batch);
+		}, 10, Duration.ofSeconds(10), 1, 1000, Duration.ofSeconds(5), scheduler);
+		for (int i = 0; i < 95; i++) {
+			assertTrue(pipeline.offer("order-" + i));
+		}
+		pipeline.dispose();
+
+		assertEquals(95, batches.stream().mapToInt(List::size).sum());
+		assertFalse(pipeline.offer("order-after-dispose"));
+		assertEquals(1000, pipeline.getAvailableCapacity());
+	}
+
+	@Test
+	void testDroppedOrdersReleaseTheirPermits() {
+		CountDownLatch release = new CountDownLatch(1);
+		OrderIngestionPipeline pipeline = new OrderIngestionPipeline(batch -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, 5, Duration.ofMillis(10), 1, 100, Duration.ofMillis(100), scheduler);
+		for (int i = 0; i < 50; i++) {
+			assertTrue(pipeline.offer("order-" + i));
+		}
+		pipeline.dispose();
+		release.countDown();
+
+		assertEquals(100, pipeline.getAvailableCapacity());
+	}
+}
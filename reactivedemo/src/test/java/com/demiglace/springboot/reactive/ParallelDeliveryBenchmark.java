@@ -0,0 +1,78 @@
+package com.demiglace.springboot.reactive;
+
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.demiglace.springboot.reactive.vaccine.ParallelDelivery;
+import com.demiglace.springboot.reactive.vaccine.Vaccine;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Rough throughput comparison of sequential and parallel delivery for a
+ * CPU-bound and a latency-bound delivery step. Run with mvn -Pbenchmark test.
+ */
+@Tag("benchmark")
+class ParallelDeliveryBenchmark {
+
+	private static final int CPU_ELEMENTS = 20_000;
+	private static final int LATENCY_ELEMENTS = 2_000;
+	private static final long LATENCY_MILLIS = 2;
+
+	private static Vaccine cpuBound(Vaccine vaccine) {
+		long hash = vaccine.getName().hashCode();
+		for (int i = 0; i < 20_000; i++) {
+			hash = hash * 31 + i;
+		}
+		return vaccine.withDelivered(hash != 0);
+	}
+
+	private static Vaccine latencyBound(Vaccine vaccine) {
+		try {
+			Thread.sleep(LATENCY_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return vaccine.withDelivered(true);
+	}
+
+	private static Flux<Vaccine> vaccines(int count) {
+		return Flux.range(0, count).map(i -> new Vaccine("Vaccine-" + i));
+	}
+
+	private static void report(String name, int count, Flux<Vaccine> delivered) {
+		long start = System.nanoTime();
+		delivered.blockLast();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println(String.format("%-40s %12.0f vaccines/s", name, count / seconds));
+	}
+
+	private static void compare(String step, int count, Function<Vaccine, Vaccine> deliver, int parallelism) {
+		Scheduler scheduler = Schedulers.newBoundedElastic(parallelism, count, "bench-delivery");
+		try {
+			report(step + " sequential", count, vaccines(count).map(deliver));
+			report(step + " parallel(" + parallelism + ") ordered", count,
+					ParallelDelivery.apply(vaccines(count), deliver, parallelism, scheduler, true));
+			report(step + " parallel(" + parallelism + ") unordered", count,
+					ParallelDelivery.apply(vaccines(count), deliver, parallelism, scheduler, false));
+		} finally {
+			scheduler.dispose();
+		}
+	}
+
+	@Test
+	void benchmarkCpuBoundDelivery() {
+		int cores = Runtime.getRuntime().availableProcessors();
+		compare("cpu-bound", CPU_ELEMENTS, ParallelDeliveryBenchmark::cpuBound, cores);
+	}
+
+	@Test
+	void benchmarkLatencyBoundDelivery() {
+		compare("latency-bound(" + LATENCY_MILLIS + "ms)", LATENCY_ELEMENTS,
+				ParallelDeliveryBenchmark::latencyBound, 64);
+	}
+}
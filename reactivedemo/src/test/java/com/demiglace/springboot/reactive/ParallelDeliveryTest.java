@@ -0,0 +1,51 @@
+package com.demiglace.springboot.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.demiglace.springboot.reactive.vaccine.ParallelDelivery;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+class ParallelDeliveryTest {
+
+	private final Scheduler scheduler = Schedulers.newBoundedElastic(8, 1000, "test-delivery");
+
+	private final List<Integer> source = IntStream.range(0, 500).boxed().collect(Collectors.toList());
+
+	private Integer jitteredDouble(Integer value) {
+		LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(100_000));
+		return value * 2;
+	}
+
+	@AfterEach
+	void tearDown() {
+		scheduler.dispose();
+	}
+
+	@Test
+	void testPreservesOrder() {
+		List<Integer> result = ParallelDelivery.apply(Flux.fromIterable(source), this::jitteredDouble, 8, scheduler, true)
+				.collectList().block();
+		assertEquals(source.stream().map(v -> v * 2).collect(Collectors.toList()), result);
+	}
+
+	@Test
+	void testRelaxedOrderDeliversEverything() {
+		List<Integer> result = ParallelDelivery.apply(Flux.fromIterable(source), this::jitteredDouble, 8, scheduler, false)
+				.collectList().block();
+		assertEquals(source.size(), result.size());
+		assertEquals(source.stream().map(v -> v * 2).collect(Collectors.toSet()), new HashSet<>(result));
+	}
+}
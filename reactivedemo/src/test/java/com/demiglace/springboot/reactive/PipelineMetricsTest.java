@@ -0,0 +1,55 @@
+package com.demiglace.springboot.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.demiglace.springboot.reactive.metrics.PipelineMetrics;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class PipelineMetricsTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private PipelineMetrics metrics;
+
+	@BeforeEach
+	void setUp() {
+		Metrics.addRegistry(registry);
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (metrics != null) {
+			metrics.close();
+		}
+		Metrics.removeRegistry(registry);
+	}
+
+	@Test
+	void testDisabledLeavesPipelineUntouched() {
+		Flux<String> flux = Flux.just("Pfizer");
+		metrics = new PipelineMetrics(false);
+		assertSame(flux, flux.transform(metrics.flux("vaccine.test")));
+	}
+
+	@Test
+	void testEnabledRecordsFlowMetrics() {
+		metrics = new PipelineMetrics(true);
+		Flux<String> flux = Flux.just("Pfizer", "J&J", "Moderna")
+				.transform(metrics.flux("vaccine.test", "mode", "unit"));
+		StepVerifier.create(flux).expectNextCount(3).expectComplete().verify();
+
+		assertNotNull(registry.getMeters().stream()
+				.filter(meter -> meter.getId().getName().contains("subscribed"))
+				.filter(meter -> "unit".equals(meter.getId().getTag("mode")))
+				.findFirst()
+				.orElse(null));
+	}
+}
@@ -0,0 +1,69 @@
+package com.demiglace.springboot.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.demiglace.springboot.reactive.vaccine.Vaccine;
+import com.demiglace.springboot.reactive.vaccine.VaccineDeduplication;
+import com.demiglace.springboot.reactive.vaccine.WindowedKeySet;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class VaccineDeduplicationTest {
+
+	@Test
+	void testVaccineValueSemantics() {
+		Vaccine vaccine = new Vaccine("Pfizer", 1L);
+		assertEquals(vaccine, vaccine.withDelivered(true));
+		assertEquals(vaccine.hashCode(), new Vaccine("Pfizer", 1L).hashCode());
+		assertNotEquals(vaccine, new Vaccine("Pfizer", 2L));
+		assertNotEquals(vaccine, "Pfizer");
+		assertNotEquals(vaccine, null);
+		assertFalse(vaccine.isDelivered());
+		assertTrue(vaccine.withDelivered(true).isDelivered());
+	}
+
+	@Test
+	void testDistinctWithinWindow() {
+		Flux<Vaccine> shipments = Flux.just(new Vaccine("Pfizer", 1L), new Vaccine("Moderna", 2L),
+				new Vaccine("Pfizer", 1L), new Vaccine("Pfizer", 3L), new Vaccine("Moderna", 2L));
+		StepVerifier.create(shipments.transform(VaccineDeduplication.within(Duration.ofMinutes(1), 100)))
+			.expectNext(new Vaccine("Pfizer", 1L))
+			.expectNext(new Vaccine("Moderna", 2L))
+			.expectNext(new Vaccine("Pfizer", 3L))
+			.expectComplete()
+			.verify();
+	}
+
+	@Test
+	void testMemoryStaysBounded() {
+		WindowedKeySet<Long> keys = new WindowedKeySet<>(Duration.ofHours(1), 1000);
+		for (long i = 0; i < 1_000_000; i++) {
+			assertTrue(keys.add(i));
+		}
+		assertEquals(1000, keys.size());
+		assertFalse(keys.add(999_999L));
+	}
+
+	@Test
+	void testKeysExpireAfterWindow() {
+		AtomicLong now = new AtomicLong();
+		WindowedKeySet<String> keys = new WindowedKeySet<>(Duration.ofSeconds(10), 1000, now::get);
+		assertTrue(keys.add("Pfizer"));
+		now.addAndGet(Duration.ofSeconds(5).toNanos());
+		assertFalse(keys.add("Pfizer"));
+		assertTrue(keys.add("Moderna"));
+		now.addAndGet(Duration.ofSeconds(6).toNanos());
+		assertTrue(keys.add("Pfizer"));
+		assertFalse(keys.add("Moderna"));
+		assertEquals(2, keys.size());
+	}
+}
@@ -0,0 +1,70 @@
+package com.demiglace.springboot.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.demiglace.springboot.reactive.vaccine.OverflowStrategy;
+import com.demiglace.springboot.reactive.vaccine.StreamSubscriberStats;
+import com.demiglace.springboot.reactive.vaccine.VaccineShipmentFeed;
+
+import reactor.test.StepVerifier;
+
+class VaccineShipmentFeedTest {
+
+	private static final int BUFFER_SIZE = 16;
+
+	private final VaccineShipmentFeed feed = new VaccineShipmentFeed(10000, 10, BUFFER_SIZE);
+
+	private void assertSlowSubscriberBounded(OverflowStrategy overflow, int maxLag) {
+		StepVerifier.create(feed.stream(overflow), 0)
+			.expectSubscription()
+			.thenAwait(Duration.ofMillis(300))
+			.then(() -> {
+				StreamSubscriberStats stats = feed.getSubscribers().iterator().next();
+				assertEquals(overflow, stats.getOverflow());
+				assertTrue(stats.getReceived() > maxLag);
+				assertTrue(stats.getDropped() > 0);
+				// one shipment may be between the received and dropped counters
+				assertTrue(stats.getLag() <= maxLag + 1);
+			})
+			.thenRequest(5)
+			.expectNextCount(5)
+			.thenCancel()
+			.verify();
+		assertTrue(feed.getSubscribers().isEmpty());
+	}
+
+	@Test
+	void testBufferOverflowIsBounded() {
+		assertSlowSubscriberBounded(OverflowStrategy.BUFFER, BUFFER_SIZE);
+	}
+
+	@Test
+	void testDropOverflow() {
+		assertSlowSubscriberBounded(OverflowStrategy.DROP, 0);
+	}
+
+	@Test
+	void testLatestOverflow() {
+		assertSlowSubscriberBounded(OverflowStrategy.LATEST, 1);
+	}
+
+	@Test
+	void testOverflowFromString() {
+		assertEquals(OverflowStrategy.LATEST, OverflowStrategy.from(" latest "));
+	}
+
+	@Test
+	void testUnknownOverflowIsBadRequest() {
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> OverflowStrategy.from("lastest"));
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatus());
+		assertTrue(e.getReason().contains("buffer, drop, latest"));
+	}
+}
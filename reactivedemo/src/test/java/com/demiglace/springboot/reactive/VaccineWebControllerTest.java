@@ -0,0 +1,39 @@
+package com.demiglace.springboot.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.demiglace.springboot.reactive.vaccine.Vaccine;
+import com.demiglace.springboot.reactive.vaccine.VaccineService;
+
+import reactor.core.publisher.Flux;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class VaccineWebControllerTest {
+
+	@Autowired
+	WebTestClient webTestClient;
+
+	@MockBean
+	VaccineService service;
+
+	@Test
+	void testRendersEveryVaccine() {
+		when(service.getVaccines()).thenReturn(Flux.range(0, 25).map(i -> new Vaccine("Vaccine-" + i)));
+		String page = webTestClient.get().uri("/")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(String.class).returnResult().getResponseBody();
+		assertTrue(page.contains("Vaccine-0"));
+		assertTrue(page.contains("Vaccine-24"));
+		assertTrue(page.trim().endsWith("</html>"));
+	}
+}
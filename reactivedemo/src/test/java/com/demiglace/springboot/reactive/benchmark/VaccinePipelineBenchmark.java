@@ -0,0 +1,191 @@
+package com.demiglace.springboot.reactive.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.demiglace.springboot.reactive.metrics.PipelineMetrics;
+import com.demiglace.springboot.reactive.vaccine.Vaccine;
+import com.demiglace.springboot.reactive.vaccine.VaccineProvider;
+import com.demiglace.springboot.reactive.vaccine.VaccineService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Per-element cost of the vaccine delivery pipeline. Every invocation pushes
+ * {@link #ELEMENTS} vaccines through, so scores are vaccines per second and
+ * with {@code -prof gc} the normalized allocation is bytes per vaccine.
+ * <p>
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="VaccinePipelineBenchmark -prof gc"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(VaccinePipelineBenchmark.ELEMENTS)
+public class VaccinePipelineBenchmark {
+
+	static final int ELEMENTS = 10_000;
+
+	@State(Scope.Benchmark)
+	public static class Source {
+		List<Vaccine> vaccines;
+
+		@Setup
+		public void setUp() {
+			vaccines = new ArrayList<>(ELEMENTS);
+			for (int i = 0; i < ELEMENTS; i++) {
+				vaccines.add(new Vaccine("Vaccine-" + (i % 5), (long) i));
+			}
+		}
+
+		Flux<Vaccine> flux() {
+			return Flux.fromIterable(vaccines);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class ProviderState {
+		VaccineProvider sequential;
+		VaccineProvider parallel;
+
+		@Setup
+		public void setUp(Source source) {
+			VaccineService service = new VaccineService() {
+				@Override
+				public Flux<Vaccine> getVaccines() {
+					return source.flux();
+				}
+			};
+			sequential = provider(service, false);
+			parallel = provider(service, true);
+		}
+
+		private VaccineProvider provider(VaccineService service, boolean parallel) {
+			VaccineProvider provider = new VaccineProvider();
+			ReflectionTestUtils.setField(provider, "service", service);
+			ReflectionTestUtils.setField(provider, "metrics", new PipelineMetrics(false));
+			ReflectionTestUtils.setField(provider, "parallel", parallel);
+			ReflectionTestUtils.setField(provider, "preserveOrder", true);
+			ReflectionTestUtils.setField(provider, "queueCapacity", 100_000);
+			provider.init();
+			return provider;
+		}
+
+		@TearDown
+		public void tearDown() {
+			sequential.destroy();
+			parallel.destroy();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class ReactiveConfig {
+		@Param({ "map", "handle", "concatMap", "flatMap" })
+		String operator;
+
+		@Param({ "immediate", "parallel", "boundedElastic" })
+		String scheduler;
+
+		@Param({ "32", "256", "1024" })
+		int prefetch;
+
+		Scheduler publishOn;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			switch (scheduler) {
+			case "parallel":
+				publishOn = Schedulers.newParallel("bench-parallel");
+				break;
+			case "boundedElastic":
+				publishOn = Schedulers.newBoundedElastic(Runtime.getRuntime().availableProcessors(), 100_000,
+						"bench-elastic");
+				break;
+			default:
+				publishOn = null;
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			if (publishOn != null) {
+				publishOn.dispose();
+			}
+		}
+
+		Flux<Vaccine> apply(Flux<Vaccine> source) {
+			Flux<Vaccine> scheduled = publishOn == null ? source : source.publishOn(publishOn, prefetch);
+			switch (operator) {
+			case "handle":
+				return scheduled.handle((vaccine, sink) -> sink.next(vaccine.withDelivered(true)));
+			case "concatMap":
+				return scheduled.concatMap(vaccine -> Mono.just(vaccine.withDelivered(true)), prefetch);
+			case "flatMap":
+				return scheduled.flatMap(vaccine -> Mono.just(vaccine.withDelivered(true)), prefetch, prefetch);
+			default:
+				return scheduled.map(vaccine -> vaccine.withDelivered(true));
+			}
+		}
+	}
+
+	@Benchmark
+	public void provideVaccines(ProviderState state, Blackhole blackhole) {
+		state.sequential.provideVaccines().doOnNext(blackhole::consume).blockLast();
+	}
+
+	@Benchmark
+	public void provideVaccinesParallelOrdered(ProviderState state, Blackhole blackhole) {
+		state.parallel.provideVaccinesInParallel(true).doOnNext(blackhole::consume).blockLast();
+	}
+
+	@Benchmark
+	public void provideVaccinesParallelUnordered(ProviderState state, Blackhole blackhole) {
+		state.parallel.provideVaccinesInParallel(false).doOnNext(blackhole::consume).blockLast();
+	}
+
+	@Benchmark
+	public void reactiveOperators(Source source, ReactiveConfig config, Blackhole blackhole) {
+		config.apply(source.flux()).doOnNext(blackhole::consume).blockLast();
+	}
+
+	@Benchmark
+	public void blockingLoop(Source source, Blackhole blackhole) {
+		for (Vaccine vaccine : source.vaccines) {
+			blackhole.consume(vaccine.withDelivered(true));
+		}
+	}
+
+	@Benchmark
+	public List<Vaccine> blockingStream(Source source) {
+		return source.vaccines.stream().map(vaccine -> vaccine.withDelivered(true)).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Vaccine> blockingParallelStream(Source source) {
+		return source.vaccines.parallelStream().map(vaccine -> vaccine.withDelivered(true))
+				.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,54 @@
+package com.demiglace.springboot.reactive.cache;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.demiglace.springboot.reactive.entities.Product;
+import com.demiglace.springboot.reactive.repos.ProductRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-through cache of products by id. The cache holds futures, so
+ * concurrent lookups of an id that is still loading share one repository
+ * call, and nothing here ever waits on a result. Products that are not found
+ * and failed lookups are not cached.
+ */
+@Component
+public class ProductCache {
+
+	public static final String NAME = "product-cache";
+
+	private final ProductRepository repo;
+	private final AsyncCache<String, Product> cache;
+
+	@Autowired
+	public ProductCache(ProductRepository repo, MeterRegistry registry,
+			@Value("${products.cache.max-size:10000}") long maxSize,
+			@Value("${products.cache.ttl-seconds:300}") long ttlSeconds) {
+		this.repo = repo;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.recordStats()
+				.buildAsync();
+		CaffeineCacheMetrics.monitor(registry, cache.synchronous(), NAME);
+	}
+
+	public Mono<Product> get(String id) {
+		// subscribe through a dependent stage so one caller cancelling does not cancel the shared load
+		return Mono.fromCompletionStage(() -> cache.get(id, (key, executor) -> repo.findById(key).toFuture())
+				.minimalCompletionStage());
+	}
+
+	public Mono<Void> evict(String id) {
+		return Mono.fromRunnable(() -> cache.synchronous().invalidate(id));
+	}
+}
@@ -1,14 +1,27 @@
 package com.demiglace.springboot.reactive.controllers;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.demiglace.springboot.reactive.cache.ProductCache;
 import com.demiglace.springboot.reactive.entities.Product;
+import com.demiglace.springboot.reactive.model.BulkInsertAck;
+import com.demiglace.springboot.reactive.model.ProductPage;
 import com.demiglace.springboot.reactive.repos.ProductRepository;
+import com.demiglace.springboot.reactive.services.ProductBulkLoader;
+import com.demiglace.springboot.reactive.services.ProductExporter;
+import com.demiglace.springboot.reactive.services.ProductQueryService;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -19,14 +32,61 @@ public class ProductController {
 	
 	@Autowired
 	private ProductRepository repo;
+
+	@Autowired
+	private ProductCache cache;
+
+	@Autowired
+	private ProductBulkLoader bulkLoader;
+
+	@Autowired
+	private ProductExporter exporter;
+
+	@Autowired
+	private ProductQueryService queryService;
 	
 	@PostMapping
 	public Mono<Product> addProduct(@RequestBody Product product) {
-		return repo.save(product);
+		return repo.save(product)
+				.flatMap(saved -> cache.evict(saved.getId()).thenReturn(saved));
+	}
+
+	@PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<BulkInsertAck> addProducts(@RequestBody Flux<Product> products) {
+		return bulkLoader.insert(products);
 	}
 	
 	@GetMapping
 	public Flux<Product> getProducts() {
 		return repo.findAll();
 	}
+
+	@GetMapping("/{id}")
+	public Mono<Product> getProduct(@PathVariable("id") String id) {
+		return cache.get(id)
+				.switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)));
+	}
+
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<Product> exportProducts(@RequestParam(value = "fields", required = false) List<String> fields,
+			@RequestParam(value = "batchSize", required = false) Integer batchSize) {
+		return exporter.export(fields, batchSize);
+	}
+
+	@GetMapping("/by-price")
+	public Mono<ProductPage> getProductsByPrice(@RequestParam(value = "min", required = false) Double min,
+			@RequestParam(value = "max", required = false) Double max,
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "limit", defaultValue = "50") int limit,
+			@RequestParam(value = "fields", required = false) List<String> fields) {
+		return queryService.findByPriceRange(min, max, after, limit, fields);
+	}
+
+	@GetMapping("/by-name")
+	public Mono<ProductPage> getProductsByName(@RequestParam("prefix") String prefix,
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "limit", defaultValue = "50") int limit,
+			@RequestParam(value = "fields", required = false) List<String> fields) {
+		return queryService.findByNamePrefix(prefix, after, limit, fields);
+	}
 }
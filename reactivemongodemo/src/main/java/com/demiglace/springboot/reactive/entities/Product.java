@@ -1,9 +1,15 @@
 package com.demiglace.springboot.reactive.entities;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document
+@CompoundIndexes({
+	@CompoundIndex(name = "price_id", def = "{'price': 1, '_id': 1}"),
+	@CompoundIndex(name = "name_id", def = "{'name': 1, '_id': 1}")
+})
 public class Product {
 	@Id
 	private String id;
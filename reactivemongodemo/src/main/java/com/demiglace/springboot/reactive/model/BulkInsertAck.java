@@ -0,0 +1,43 @@
+package com.demiglace.springboot.reactive.model;
+
+public class BulkInsertAck {
+	private long batch;
+	private int inserted;
+	private String firstId;
+	private String lastId;
+
+	public BulkInsertAck() {
+
+	}
+	public BulkInsertAck(long batch, int inserted, String firstId, String lastId) {
+		this.batch = batch;
+		this.inserted = inserted;
+		this.firstId = firstId;
+		this.lastId = lastId;
+	}
+
+	public long getBatch() {
+		return batch;
+	}
+	public void setBatch(long batch) {
+		this.batch = batch;
+	}
+	public int getInserted() {
+		return inserted;
+	}
+	public void setInserted(int inserted) {
+		this.inserted = inserted;
+	}
+	public String getFirstId() {
+		return firstId;
+	}
+	public void setFirstId(String firstId) {
+		this.firstId = firstId;
+	}
+	public String getLastId() {
+		return lastId;
+	}
+	public void setLastId(String lastId) {
+		this.lastId = lastId;
+	}
+}
@@ -0,0 +1,31 @@
+package com.demiglace.springboot.reactive.model;
+
+import java.util.List;
+
+import com.demiglace.springboot.reactive.entities.Product;
+
+public class ProductPage {
+	private List<Product> items;
+	private String next;
+
+	public ProductPage() {
+
+	}
+	public ProductPage(List<Product> items, String next) {
+		this.items = items;
+		this.next = next;
+	}
+
+	public List<Product> getItems() {
+		return items;
+	}
+	public void setItems(List<Product> items) {
+		this.items = items;
+	}
+	public String getNext() {
+		return next;
+	}
+	public void setNext(String next) {
+		this.next = next;
+	}
+}
@@ -0,0 +1,66 @@
+package com.demiglace.springboot.reactive.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Non-blocking counting semaphore: {@link #acquire()} completes once a permit
+ * is available instead of parking the caller's thread.
+ */
+class AsyncPermits {
+	private int available;
+	private final Deque<MonoSink<Void>> waiters = new ArrayDeque<>();
+
+	AsyncPermits(int permits) {
+		this.available = permits;
+	}
+
+	Mono<Void> acquire() {
+		synchronized (this) {
+			if (available > 0) {
+				available--;
+				return Mono.empty();
+			}
+		}
+		return Mono.create(sink -> {
+			boolean granted = false;
+			synchronized (this) {
+				if (available > 0) {
+					available--;
+					granted = true;
+				} else {
+					waiters.addLast(sink);
+				}
+			}
+			if (granted) {
+				sink.success();
+			} else {
+				sink.onCancel(() -> {
+					synchronized (this) {
+						waiters.remove(sink);
+					}
+				});
+			}
+		});
+	}
+
+	void release(int permits) {
+		List<MonoSink<Void>> granted = new ArrayList<>();
+		synchronized (this) {
+			for (int i = 0; i < permits; i++) {
+				MonoSink<Void> waiter = waiters.pollFirst();
+				if (waiter == null) {
+					available++;
+				} else {
+					granted.add(waiter);
+				}
+			}
+		}
+		granted.forEach(MonoSink::success);
+	}
+}
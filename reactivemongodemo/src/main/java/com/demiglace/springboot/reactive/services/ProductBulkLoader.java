@@ -0,0 +1,58 @@
+package com.demiglace.springboot.reactive.services;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.demiglace.springboot.reactive.entities.Product;
+import com.demiglace.springboot.reactive.model.BulkInsertAck;
+import com.demiglace.springboot.reactive.repos.ProductRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Inserts a stream of products in batches of up to {@code batchSize}, or
+ * whatever arrived within {@code maxLatency}, with one insertMany per batch
+ * and at most {@code maxInFlight} batches being written at once. Each
+ * incoming product takes a permit that is only returned once its batch is
+ * written, so a slow database slows down reading the request body instead of
+ * piling documents up in memory.
+ */
+@Service
+public class ProductBulkLoader {
+
+	@Autowired
+	private ProductRepository repo;
+
+	@Value("${products.bulk.batch-size:1000}")
+	private int batchSize;
+
+	@Value("${products.bulk.max-latency-millis:200}")
+	private long maxLatencyMillis;
+
+	@Value("${products.bulk.max-in-flight:4}")
+	private int maxInFlight;
+
+	public Flux<BulkInsertAck> insert(Flux<Product> products) {
+		return Flux.defer(() -> {
+			AsyncPermits permits = new AsyncPermits(batchSize * (maxInFlight + 1));
+			return products
+					.delayUntil(product -> permits.acquire())
+					.bufferTimeout(batchSize, Duration.ofMillis(maxLatencyMillis))
+					// bufferTimeout may flush on its timer without demand; the permits bound this buffer
+					.onBackpressureBuffer()
+					.flatMapSequential(batch -> insertBatch(batch)
+							.doFinally(signal -> permits.release(batch.size())), maxInFlight)
+					.index((index, saved) -> new BulkInsertAck(index, saved.size(), saved.get(0).getId(),
+							saved.get(saved.size() - 1).getId()));
+		});
+	}
+
+	private Mono<List<Product>> insertBatch(List<Product> batch) {
+		return repo.insert(batch).collectList();
+	}
+}
@@ -0,0 +1,46 @@
+package com.demiglace.springboot.reactive.services;
+
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.demiglace.springboot.reactive.entities.Product;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Streams the product collection with a tuned cursor. The driver sizes each
+ * getMore by the outstanding demand, so requests are reshaped with
+ * {@code limitRate} to one cursor batch at a time: a slow client then holds
+ * the cursor instead of buffering documents, and a fast one is not served a
+ * document per round trip.
+ */
+@Service
+public class ProductExporter {
+
+	@Autowired
+	private ReactiveMongoTemplate template;
+
+	@Value("${products.export.cursor-batch-size:256}")
+	private int defaultBatchSize;
+
+	@Value("${products.export.max-cursor-batch-size:10000}")
+	private int maxBatchSize;
+
+	public Flux<Product> export(Collection<String> fields, Integer batchSize) {
+		int cursorBatchSize = batchSize == null ? defaultBatchSize : batchSize;
+		if (cursorBatchSize < 1 || cursorBatchSize > maxBatchSize) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"batchSize must be between 1 and " + maxBatchSize);
+		}
+
+		Query query = ProductFields.project(new Query().cursorBatchSize(cursorBatchSize), fields);
+		return template.find(query, Product.class).limitRate(cursorBatchSize);
+	}
+}
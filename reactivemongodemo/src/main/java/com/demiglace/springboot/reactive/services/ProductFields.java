@@ -0,0 +1,36 @@
+package com.demiglace.springboot.reactive.services;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+final class ProductFields {
+
+	private static final Set<String> FIELDS = Set.of("id", "name", "description", "price");
+
+	private ProductFields() {
+	}
+
+	/**
+	 * Restricts the query to the requested fields plus {@code required}, or
+	 * leaves it fetching whole documents when no fields are requested.
+	 */
+	static Query project(Query query, Collection<String> fields, String... required) {
+		if (fields == null || fields.isEmpty()) {
+			return query;
+		}
+		for (String field : fields) {
+			if (!FIELDS.contains(field)) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unknown field " + field);
+			}
+			query.fields().include(field);
+		}
+		for (String field : required) {
+			query.fields().include(field);
+		}
+		return query;
+	}
+}
@@ -0,0 +1,152 @@
+package com.demiglace.springboot.reactive.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.demiglace.springboot.reactive.entities.Product;
+import com.demiglace.springboot.reactive.model.ProductPage;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Price-range and name-prefix queries served from the {price, _id} and
+ * {name, _id} compound indexes declared on {@link Product}. Pages are sorted
+ * by the indexed field with _id as tie-breaker, and the next page seeks past
+ * the last (value, _id) pair instead of skipping, so every page is one
+ * bounded index range scan however deep the client pages.
+ */
+@Service
+public class ProductQueryService {
+
+	@Autowired
+	private ReactiveMongoTemplate template;
+
+	@Value("${products.query.max-page-size:1000}")
+	private int maxPageSize;
+
+	public Mono<ProductPage> findByPriceRange(Double min, Double max, String after, int limit,
+			Collection<String> fields) {
+		List<Criteria> criteria = new ArrayList<>();
+		if (min != null) {
+			criteria.add(Criteria.where("price").gte(min));
+		}
+		if (max != null) {
+			criteria.add(Criteria.where("price").lte(max));
+		}
+		if (after != null) {
+			String[] cursor = decode(after);
+			criteria.add(seek("price", parsePrice(cursor[0]), cursor[1]));
+		}
+		// a null price is encoded as an empty cursor value
+		return page(criteria, "price", limit, fields,
+				product -> product.getPrice() == null ? "" : String.valueOf(product.getPrice()));
+	}
+
+	public Mono<ProductPage> findByNamePrefix(String prefix, String after, int limit, Collection<String> fields) {
+		List<Criteria> criteria = new ArrayList<>();
+		// a range rather than a regex keeps the bounds visible to the index
+		criteria.add(Criteria.where("name").gte(prefix));
+		criteria.add(Criteria.where("name").lt(prefix + Character.MAX_VALUE));
+		if (after != null) {
+			String[] cursor = decode(after);
+			criteria.add(seek("name", cursor[0], cursor[1]));
+		}
+		return page(criteria, "name", limit, fields, Product::getName);
+	}
+
+	private Mono<ProductPage> page(List<Criteria> criteria, String sortField, int limit, Collection<String> fields,
+			Function<Product, String> sortValue) {
+		if (limit < 1 || limit > maxPageSize) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxPageSize);
+		}
+		Query query = criteria.isEmpty() ? new Query()
+				: new Query(new Criteria().andOperator(criteria.toArray(new Criteria[0])));
+		query.with(Sort.by(Sort.Direction.ASC, sortField, "_id"))
+				.limit(limit)
+				.cursorBatchSize(limit);
+		ProductFields.project(query, fields, "id", sortField);
+
+		return template.find(query, Product.class)
+				.collectList()
+				.map(items -> {
+					if (items.size() < limit) {
+						return new ProductPage(items, null);
+					}
+					Product last = items.get(items.size() - 1);
+					return new ProductPage(items, encode(sortValue.apply(last), last.getId()));
+				});
+	}
+
+	/**
+	 * Everything after (value, id) in (field, _id) order. Mongo sorts null
+	 * and missing values before any number or string, so after a null value
+	 * come the remaining nulls and then every non-null value.
+	 */
+	private static Criteria seek(String field, Object value, String id) {
+		return new Criteria().orOperator(
+				value == null ? Criteria.where(field).ne(null) : Criteria.where(field).gt(value),
+				new Criteria().andOperator(Criteria.where(field).is(value), idAfter(id)));
+	}
+
+	/**
+	 * Everything after {@code id} in _id order. Ids that are valid ObjectIds
+	 * are stored as ObjectIds (Spring Data converts them on save), any others
+	 * as strings. Mongo compares values of one type only, and sorts strings
+	 * before ObjectIds, so after a string come the greater strings and then
+	 * every ObjectId.
+	 */
+	private static Criteria idAfter(String id) {
+		if (id.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor");
+		}
+		if (ObjectId.isValid(id)) {
+			return Criteria.where("_id").gt(new ObjectId(id));
+		}
+		// BSON type 7 is ObjectId
+		return new Criteria().orOperator(Criteria.where("_id").gt(id), Criteria.where("_id").type(7));
+	}
+
+	static String encode(String value, String id) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((value + "\n" + id).getBytes(StandardCharsets.UTF_8));
+	}
+
+	static String[] decode(String cursor) {
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int split = decoded.lastIndexOf('\n');
+			if (split < 0) {
+				throw new IllegalArgumentException();
+			}
+			return new String[] { decoded.substring(0, split), decoded.substring(split + 1) };
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor");
+		}
+	}
+
+	private static Double parsePrice(String value) {
+		if (value.isEmpty()) {
+			return null;
+		}
+		try {
+			return Double.valueOf(value);
+		} catch (NumberFormatException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor");
+		}
+	}
+}
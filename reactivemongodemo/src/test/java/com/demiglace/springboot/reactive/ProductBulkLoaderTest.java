@@ -0,0 +1,56 @@
+package com.demiglace.springboot.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import com.demiglace.springboot.reactive.entities.Product;
+import com.demiglace.springboot.reactive.repos.ProductRepository;
+import com.demiglace.springboot.reactive.services.ProductBulkLoader;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@SpringBootTest(properties = { "products.bulk.batch-size=1000", "products.bulk.max-in-flight=2" })
+class ProductBulkLoaderTest {
+
+	@Autowired
+	ProductBulkLoader bulkLoader;
+
+	@MockBean
+	ProductRepository repo;
+
+	@Test
+	void testInsertsInBatches() {
+		AtomicInteger ids = new AtomicInteger();
+		when(repo.insert(anyIterable())).thenAnswer(invocation -> {
+			Iterable<Product> batch = invocation.getArgument(0);
+			return Flux.fromIterable(batch)
+					.map(p -> new Product("id" + ids.incrementAndGet(), p.getName(), p.getDescription(), p.getPrice()));
+		});
+
+		Flux<Product> products = Flux.range(0, 2500).map(i -> new Product(null, "Legion " + i, "Gaming Laptop", 2000d));
+		StepVerifier.create(bulkLoader.insert(products))
+			.assertNext(ack -> {
+				assertEquals(0, ack.getBatch());
+				assertEquals(1000, ack.getInserted());
+			})
+			.assertNext(ack -> assertEquals(1000, ack.getInserted()))
+			.assertNext(ack -> {
+				assertEquals(2, ack.getBatch());
+				assertEquals(500, ack.getInserted());
+			})
+			.expectComplete()
+			.verify();
+		verify(repo, times(3)).insert(anyIterable());
+	}
+}
@@ -0,0 +1,68 @@
+package com.demiglace.springboot.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.demiglace.springboot.reactive.cache.ProductCache;
+import com.demiglace.springboot.reactive.entities.Product;
+import com.demiglace.springboot.reactive.repos.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ProductCacheTest {
+
+	private final ProductRepository repo = mock(ProductRepository.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ProductCache cache = new ProductCache(repo, registry, 100, 60);
+
+	private double gets(String result) {
+		return registry.get("cache.gets").tag("cache", ProductCache.NAME).tag("result", result).functionCounter().count();
+	}
+
+	@Test
+	void testConcurrentLookupsShareOneLoad() {
+		Product product = new Product("abc123", "Legion", "Gaming Laptop", 2000d);
+		when(repo.findById("abc123")).thenReturn(Mono.just(product).delayElement(Duration.ofMillis(100)));
+
+		StepVerifier.create(Flux.merge(cache.get("abc123"), cache.get("abc123"), cache.get("abc123")))
+			.expectNextCount(3)
+			.expectComplete()
+			.verify();
+		StepVerifier.create(cache.get("abc123")).expectNext(product).expectComplete().verify();
+
+		verify(repo, times(1)).findById("abc123");
+		assertEquals(1, gets("miss"));
+		assertEquals(3, gets("hit"));
+	}
+
+	@Test
+	void testEvictReloads() {
+		when(repo.findById("abc123")).thenReturn(Mono.just(new Product("abc123", "Legion", "Gaming Laptop", 2000d)));
+
+		cache.get("abc123").block();
+		cache.evict("abc123").block();
+		cache.get("abc123").block();
+
+		verify(repo, times(2)).findById("abc123");
+	}
+
+	@Test
+	void testMissingProductIsNotCached() {
+		when(repo.findById("missing")).thenReturn(Mono.empty());
+
+		StepVerifier.create(cache.get("missing")).expectComplete().verify();
+		StepVerifier.create(cache.get("missing")).expectComplete().verify();
+
+		verify(repo, times(2)).findById("missing");
+	}
+}
@@ -0,0 +1,149 @@
+package com.demiglace.springboot.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.demiglace.springboot.reactive.entities.Product;
+import com.demiglace.springboot.reactive.services.ProductExporter;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import reactor.test.StepVerifier;
+
+/**
+ * Runs the export against an embedded mongod and counts what the driver
+ * actually fetches, to show that client demand reaches the server cursor.
+ */
+@SpringBootTest(properties = { "spring.autoconfigure.exclude=", "spring.mongodb.embedded.version=4.0.21" })
+class ProductExporterCursorTest {
+
+	private static final int PRODUCTS = 1000;
+	private static final int BATCH_SIZE = 100;
+
+	@Autowired
+	ProductExporter exporter;
+
+	@Autowired
+	ReactiveMongoTemplate template;
+
+	@Autowired
+	CursorCommands commands;
+
+	@TestConfiguration
+	static class CursorCommandsConfig {
+
+		@Bean
+		CursorCommands cursorCommands() {
+			return new CursorCommands();
+		}
+
+		@Bean
+		MongoClientSettingsBuilderCustomizer cursorCommandListener(CursorCommands commands) {
+			return settings -> settings.addCommandListener(commands);
+		}
+	}
+
+	/**
+	 * Counts getMore round trips on the products collection and the documents
+	 * the server has returned for it.
+	 */
+	static class CursorCommands implements CommandListener {
+
+		final AtomicInteger getMores = new AtomicInteger();
+		final AtomicInteger fetched = new AtomicInteger();
+		final AtomicInteger maxGetMoreBatchSize = new AtomicInteger();
+
+		@Override
+		public void commandStarted(CommandStartedEvent event) {
+			if ("getMore".equals(event.getCommandName())) {
+				getMores.incrementAndGet();
+				BsonDocument command = event.getCommand();
+				if (command.containsKey("batchSize")) {
+					maxGetMoreBatchSize.accumulateAndGet(command.getNumber("batchSize").intValue(), Math::max);
+				}
+			}
+		}
+
+		@Override
+		public void commandSucceeded(CommandSucceededEvent event) {
+			String name = event.getCommandName();
+			if ("find".equals(name) || "getMore".equals(name)) {
+				BsonDocument cursor = event.getResponse().getDocument("cursor");
+				String batch = cursor.containsKey("firstBatch") ? "firstBatch" : "nextBatch";
+				fetched.addAndGet(cursor.getArray(batch).size());
+			}
+		}
+
+		void reset() {
+			getMores.set(0);
+			fetched.set(0);
+			maxGetMoreBatchSize.set(0);
+		}
+	}
+
+	@BeforeEach
+	void setUp() {
+		List<Product> products = IntStream.range(0, PRODUCTS)
+				.mapToObj(i -> new Product(null, "Legion " + i, "Gaming Laptop", 1000d + i))
+				.collect(Collectors.toList());
+		template.insertAll(products).blockLast(Duration.ofSeconds(30));
+		commands.reset();
+	}
+
+	@AfterEach
+	void tearDown() {
+		template.dropCollection(Product.class).block(Duration.ofSeconds(30));
+	}
+
+	@Test
+	void testSlowConsumerHoldsTheCursor() {
+		StepVerifier.create(exporter.export(List.of("id", "name"), BATCH_SIZE), 0)
+			.thenRequest(10)
+			.expectNextCount(10)
+			// long enough for any read-ahead to show up
+			.thenAwait(Duration.ofMillis(300))
+			.then(() -> {
+				assertEquals(BATCH_SIZE, commands.fetched.get());
+				assertEquals(0, commands.getMores.get());
+			})
+			.thenRequest(140)
+			.expectNextCount(140)
+			.thenAwait(Duration.ofMillis(300))
+			.then(() -> assertTrue(commands.fetched.get() <= 3 * BATCH_SIZE,
+					"fetched " + commands.fetched.get() + " documents for 150 requested"))
+			.thenCancel()
+			.verify(Duration.ofSeconds(30));
+	}
+
+	@Test
+	void testFastConsumerIsServedWholeBatches() {
+		StepVerifier.create(exporter.export(null, BATCH_SIZE))
+			.expectNextCount(PRODUCTS)
+			.expectComplete()
+			.verify(Duration.ofSeconds(30));
+
+		assertEquals(PRODUCTS, commands.fetched.get());
+		assertTrue(commands.maxGetMoreBatchSize.get() <= BATCH_SIZE);
+		// limitRate asks for 75% of a batch at a time once the first batch is in
+		assertTrue(commands.getMores.get() <= PRODUCTS / (BATCH_SIZE * 3 / 4),
+				commands.getMores.get() + " getMores for " + PRODUCTS + " documents");
+	}
+}
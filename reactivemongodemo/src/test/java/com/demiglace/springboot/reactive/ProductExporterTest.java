@@ -0,0 +1,72 @@
+package com.demiglace.springboot.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.demiglace.springboot.reactive.entities.Product;
+import com.demiglace.springboot.reactive.repos.ProductRepository;
+import com.demiglace.springboot.reactive.services.ProductExporter;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@SpringBootTest
+class ProductExporterTest {
+
+	@Autowired
+	ProductExporter exporter;
+
+	@MockBean
+	ReactiveMongoTemplate template;
+
+	@MockBean
+	ProductRepository repo;
+
+	@Test
+	void testDemandReachesCursor() {
+		AtomicLong requested = new AtomicLong();
+		// stands in for a large collection: documents are only produced on demand
+		Flux<Product> collection = Flux.range(0, 1_000_000)
+				.map(i -> new Product("id" + i, "Legion " + i, null, null))
+				.doOnRequest(requested::addAndGet);
+		when(template.find(any(Query.class), eq(Product.class))).thenReturn(collection);
+
+		StepVerifier.create(exporter.export(List.of("id", "name"), 100), 0)
+			.thenRequest(10)
+			.expectNextCount(10)
+			.then(() -> assertEquals(100, requested.get()))
+			.thenRequest(140)
+			.expectNextCount(140)
+			.then(() -> assertTrue(requested.get() <= 300))
+			.thenCancel()
+			.verify();
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(template).find(query.capture(), eq(Product.class));
+		assertEquals(100, query.getValue().getMeta().getCursorBatchSize());
+		assertEquals(new Document("id", 1).append("name", 1), query.getValue().getFieldsObject());
+	}
+
+	@Test
+	void testRejectsUnknownField() {
+		assertThrows(ResponseStatusException.class, () -> exporter.export(List.of("secret"), null));
+	}
+}
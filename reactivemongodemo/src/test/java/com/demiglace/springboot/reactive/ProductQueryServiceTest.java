@@ -0,0 +1,133 @@
+package com.demiglace.springboot.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.demiglace.springboot.reactive.entities.Product;
+import com.demiglace.springboot.reactive.model.ProductPage;
+import com.demiglace.springboot.reactive.repos.ProductRepository;
+import com.demiglace.springboot.reactive.services.ProductQueryService;
+
+import reactor.core.publisher.Flux;
+
+@SpringBootTest
+class ProductQueryServiceTest {
+
+	private static final String FIRST_ID = new ObjectId().toHexString();
+	private static final String SECOND_ID = new ObjectId().toHexString();
+
+	@Autowired
+	ProductQueryService queryService;
+
+	@MockBean
+	ReactiveMongoTemplate template;
+
+	@MockBean
+	ProductRepository repo;
+
+	@Test
+	void testPriceRangeKeysetPaging() {
+		when(template.find(any(Query.class), eq(Product.class))).thenReturn(
+				Flux.just(new Product(FIRST_ID, "Legion", null, 1500d), new Product(SECOND_ID, "Nitro 5", null, 2000d)),
+				Flux.empty());
+
+		ProductPage first = queryService.findByPriceRange(1000d, 3000d, null, 2, List.of("name")).block();
+		assertEquals(2, first.getItems().size());
+		assertNotNull(first.getNext());
+
+		ProductPage second = queryService.findByPriceRange(1000d, 3000d, first.getNext(), 2, List.of("name")).block();
+		assertEquals(0, second.getItems().size());
+		assertNull(second.getNext());
+
+		ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+		verify(template, times(2)).find(queries.capture(), eq(Product.class));
+		Query firstQuery = queries.getAllValues().get(0);
+		assertEquals(2, firstQuery.getLimit());
+		assertEquals(new Document("price", 1).append("_id", 1), firstQuery.getSortObject());
+		assertEquals(new Document("name", 1).append("id", 1).append("price", 1), firstQuery.getFieldsObject());
+
+		// the second page seeks past (2000.0, SECOND_ID)
+		String seek = queries.getAllValues().get(1).getQueryObject().toJson();
+		assertTrue(seek.contains("2000.0"));
+		assertTrue(seek.contains(SECOND_ID));
+	}
+
+	@Test
+	void testPagesPastNullPrices() {
+		when(template.find(any(Query.class), eq(Product.class))).thenReturn(
+				Flux.just(new Product(FIRST_ID, "Legion", null, null), new Product(SECOND_ID, "Nitro 5", null, null)),
+				Flux.empty());
+
+		ProductPage first = queryService.findByPriceRange(null, null, null, 2, null).block();
+		assertNotNull(first.getNext());
+		ProductPage second = queryService.findByPriceRange(null, null, first.getNext(), 2, null).block();
+		assertEquals(0, second.getItems().size());
+
+		ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+		verify(template, times(2)).find(queries.capture(), eq(Product.class));
+		// the second page takes the remaining null prices, then every priced product
+		String seek = queries.getAllValues().get(1).getQueryObject().toJson();
+		assertTrue(seek.contains("$ne"));
+		assertTrue(seek.contains(SECOND_ID));
+	}
+
+	@Test
+	void testPagesPastNonObjectIdIds() {
+		when(template.find(any(Query.class), eq(Product.class))).thenReturn(
+				Flux.just(new Product("sku-41", "Legion", null, 1500d), new Product("sku-42", "Nitro 5", null, 1500d)),
+				Flux.empty());
+
+		ProductPage first = queryService.findByPriceRange(1000d, 3000d, null, 2, null).block();
+		ProductPage second = queryService.findByPriceRange(1000d, 3000d, first.getNext(), 2, null).block();
+		assertEquals(0, second.getItems().size());
+
+		ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+		verify(template, times(2)).find(queries.capture(), eq(Product.class));
+		// a string id seeks past greater strings and then every ObjectId
+		String seek = queries.getAllValues().get(1).getQueryObject().toJson();
+		assertTrue(seek.contains("\"sku-42\""));
+		assertTrue(seek.contains("$type"));
+	}
+
+	@Test
+	void testNamePrefixIsIndexRange() {
+		when(template.find(any(Query.class), eq(Product.class))).thenReturn(Flux.just(new Product(FIRST_ID, "Legion", null, 1500d)));
+
+		ProductPage page = queryService.findByNamePrefix("Leg", null, 10, null).block();
+		assertEquals(1, page.getItems().size());
+		assertNull(page.getNext());
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		verify(template).find(query.capture(), eq(Product.class));
+		assertEquals(new Document("name", 1).append("_id", 1), query.getValue().getSortObject());
+		assertFalse(query.getValue().getQueryObject().toJson().contains("$regex"));
+	}
+
+	@Test
+	void testRejectsBadCursorAndLimit() {
+		assertThrows(ResponseStatusException.class, () -> queryService.findByPriceRange(null, null, "not-a-cursor", 10, null));
+		assertThrows(ResponseStatusException.class, () -> queryService.findByNamePrefix("Leg", null, 0, null));
+	}
+}
@@ -0,0 +1,57 @@
+package com.demiglace.rest.fileprocessing.controllers;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.demiglace.rest.fileprocessing.model.UploadStatus;
+import com.demiglace.rest.fileprocessing.services.ChunkedUploadService;
+
+@RestController
+public class ChunkedUploadController {
+
+	@Autowired
+	private ChunkedUploadService uploads;
+
+	@PostMapping("/uploads")
+	@ResponseStatus(HttpStatus.CREATED)
+	public UploadStatus create(@RequestParam("fileName") String fileName, @RequestParam("size") long size)
+			throws IOException {
+		return uploads.create(fileName, size);
+	}
+
+	@GetMapping("/uploads/{id}")
+	public UploadStatus status(@PathVariable("id") String id) {
+		return uploads.status(id);
+	}
+
+	@PutMapping(value = "/uploads/{id}/chunks", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public UploadStatus putChunk(@PathVariable("id") String id, @RequestParam("offset") long offset,
+			HttpServletRequest request) throws IOException {
+		return uploads.writeChunk(id, offset, request.getContentLengthLong(), request.getInputStream());
+	}
+
+	@PostMapping("/uploads/{id}/complete")
+	public boolean complete(@PathVariable("id") String id) throws IOException {
+		uploads.complete(id);
+		return true;
+	}
+
+	@DeleteMapping("/uploads/{id}")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public void abort(@PathVariable("id") String id) throws IOException {
+		uploads.abort(id);
+	}
+}
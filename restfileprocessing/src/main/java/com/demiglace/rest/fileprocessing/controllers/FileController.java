@@ -1,38 +1,130 @@
 package com.demiglace.rest.fileprocessing.controllers;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
 
-import org.springframework.beans.factory.annotation.Value;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.demiglace.rest.fileprocessing.services.CompressedVariants;
+import com.demiglace.rest.fileprocessing.services.ContentTypeResolver;
+import com.demiglace.rest.fileprocessing.services.FileSender;
+import com.demiglace.rest.fileprocessing.services.FileStorage;
+import com.demiglace.rest.fileprocessing.services.Thumbnail;
+import com.demiglace.rest.fileprocessing.services.ThumbnailService;
+import com.demiglace.rest.fileprocessing.services.ZipArchiver;
+import com.demiglace.rest.fileprocessing.services.ZipArchiver.ArchiveEntry;
 
 @RestController
 public class FileController {
 	
-	@Value("${uploadDir}")
-	private String UPLOAD_DIR;
+	@Autowired
+	private FileStorage storage;
+	
+	@Autowired
+	private ContentTypeResolver contentTypes;
+	
+	@Autowired
+	private FileSender fileSender;
+	
+	@Autowired
+	private ThumbnailService thumbnails;
+	
+	@Autowired
+	private CompressedVariants variants;
+	
+	@Autowired
+	private ZipArchiver archiver;
 	
 	@PostMapping("/upload")
 	public boolean upload(@RequestParam("file") MultipartFile file) throws IllegalStateException, IOException {
-		file.transferTo(new File(UPLOAD_DIR + file.getOriginalFilename()));
+		try (InputStream in = file.getInputStream()) {
+			storage.store(file.getOriginalFilename(), in);
+		}
 		return true;
 	}
 	
+	@PostMapping("/upload/link")
+	public boolean link(@RequestParam("fileName") String fileName, @RequestParam("sha256") String sha256)
+			throws IOException {
+		if (!storage.link(fileName, sha256)) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No stored content with SHA-256 " + sha256);
+		}
+		return true;
+	}
+	
+	@GetMapping("/download/archive")
+	public void downloadArchive(@RequestParam("names") List<String> names,
+			@RequestParam(value = "name", defaultValue = "archive.zip") String archiveName,
+			HttpServletResponse response) throws IOException {
+		List<ArchiveEntry> entries = archiver.entries(names);
+		response.setContentType("application/zip");
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+				ContentDisposition.attachment().filename(archiveName, StandardCharsets.UTF_8).build().toString());
+		archiver.write(entries, response.getOutputStream());
+	}
+	
 	@GetMapping("/download/{fileName}")
-	public ResponseEntity<byte[]> download(@PathVariable("fileName") String fileName) throws IOException {
-		byte[] fileData = Files.readAllBytes(new File(UPLOAD_DIR+fileName).toPath());
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.IMAGE_JPEG);
-		return new ResponseEntity<byte[]>(fileData,headers,HttpStatus.OK);
+	public void download(@PathVariable("fileName") String fileName,
+			@RequestParam(value = "w", required = false) Integer width,
+			@RequestParam(value = "h", required = false) Integer height,
+			HttpServletRequest request, HttpServletResponse response) throws IOException {
+		Path file = storage.locate(fileName);
+		if (file == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No such file: " + fileName);
+		}
+		if (width == null && height == null) {
+			sendOriginal(fileName, file, request, response);
+			return;
+		}
+		Thumbnail thumbnail = thumbnails.thumbnail(fileName, file, width, height);
+		if (thumbnail.getData() == null) {
+			try {
+				fileSender.send(thumbnail.getFile(), thumbnail.getContentType(), request, response);
+				return;
+			}
+			catch (NoSuchFileException ex) {
+				// evicted from the disk tier after the lookup; a resize returns the image in memory
+				response.reset();
+				thumbnail = thumbnails.resize(fileName, file, width, height);
+			}
+		}
+		response.setContentType(thumbnail.getContentType().toString());
+		response.setContentLength(thumbnail.getData().length);
+		response.getOutputStream().write(thumbnail.getData());
+	}
+	
+	private void sendOriginal(String fileName, Path file, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		MediaType contentType = contentTypes.resolve(fileName);
+		if (variants.isCompressible(fileName)) {
+			response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			Path gzip = CompressedVariants.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+					? variants.gzip(fileName, file)
+					: null;
+			if (gzip != null) {
+				response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+				fileSender.send(gzip, contentType, request, response);
+				return;
+			}
+		}
+		fileSender.send(file, contentType, request, response);
 	}
 }
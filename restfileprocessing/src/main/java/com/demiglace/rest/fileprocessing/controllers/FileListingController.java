@@ -0,0 +1,36 @@
+package com.demiglace.rest.fileprocessing.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.demiglace.rest.fileprocessing.model.FileMetadata;
+import com.demiglace.rest.fileprocessing.model.FilePage;
+import com.demiglace.rest.fileprocessing.services.FileIndex;
+
+@RestController
+public class FileListingController {
+
+	@Autowired
+	private FileIndex index;
+
+	@GetMapping("/files")
+	public FilePage list(@RequestParam(value = "prefix", required = false) String prefix,
+			@RequestParam(value = "after", required = false) String after,
+			@RequestParam(value = "limit", defaultValue = "100") int limit) {
+		return index.list(prefix, after, limit);
+	}
+
+	@GetMapping("/files/{fileName}")
+	public FileMetadata stat(@PathVariable("fileName") String fileName) {
+		FileMetadata metadata = index.get(fileName);
+		if (metadata == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No such file: " + fileName);
+		}
+		return metadata;
+	}
+}
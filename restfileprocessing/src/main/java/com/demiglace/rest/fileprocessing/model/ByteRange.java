@@ -0,0 +1,28 @@
+package com.demiglace.rest.fileprocessing.model;
+
+/**
+ * A half-open byte range {@code [start, end)}.
+ */
+public class ByteRange {
+
+	private final long start;
+	private final long end;
+
+	public ByteRange(long start, long end) {
+		this.start = start;
+		this.end = end;
+	}
+
+	public long getStart() {
+		return start;
+	}
+
+	public long getEnd() {
+		return end;
+	}
+
+	@Override
+	public String toString() {
+		return start + "-" + end;
+	}
+}
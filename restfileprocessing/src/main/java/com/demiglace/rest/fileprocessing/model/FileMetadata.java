@@ -0,0 +1,47 @@
+package com.demiglace.rest.fileprocessing.model;
+
+import java.time.Instant;
+
+public class FileMetadata {
+
+	private final String name;
+	private final long size;
+	private final Instant lastModified;
+	private final String contentType;
+	private final String sha256;
+
+	public FileMetadata(String name, long size, Instant lastModified, String contentType, String sha256) {
+		this.name = name;
+		this.size = size;
+		this.lastModified = lastModified;
+		this.contentType = contentType;
+		this.sha256 = sha256;
+	}
+
+	public FileMetadata withSha256(String sha256) {
+		return new FileMetadata(name, size, lastModified, contentType, sha256);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public Instant getLastModified() {
+		return lastModified;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	/**
+	 * The hex SHA-256 of the content, or null until it has been computed.
+	 */
+	public String getSha256() {
+		return sha256;
+	}
+}
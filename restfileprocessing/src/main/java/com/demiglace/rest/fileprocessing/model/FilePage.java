@@ -0,0 +1,25 @@
+package com.demiglace.rest.fileprocessing.model;
+
+import java.util.List;
+
+public class FilePage {
+
+	private final List<FileMetadata> files;
+	private final String next;
+
+	public FilePage(List<FileMetadata> files, String next) {
+		this.files = files;
+		this.next = next;
+	}
+
+	public List<FileMetadata> getFiles() {
+		return files;
+	}
+
+	/**
+	 * The {@code after} value for the next page, or null on the last page.
+	 */
+	public String getNext() {
+		return next;
+	}
+}
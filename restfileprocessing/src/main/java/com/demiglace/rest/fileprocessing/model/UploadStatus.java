@@ -0,0 +1,44 @@
+package com.demiglace.rest.fileprocessing.model;
+
+import java.util.List;
+
+public class UploadStatus {
+
+	private final String id;
+	private final String fileName;
+	private final long size;
+	private final long receivedBytes;
+	private final List<ByteRange> missing;
+
+	public UploadStatus(String id, String fileName, long size, long receivedBytes, List<ByteRange> missing) {
+		this.id = id;
+		this.fileName = fileName;
+		this.size = size;
+		this.receivedBytes = receivedBytes;
+		this.missing = missing;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public long getReceivedBytes() {
+		return receivedBytes;
+	}
+
+	public List<ByteRange> getMissing() {
+		return missing;
+	}
+
+	public boolean isComplete() {
+		return receivedBytes == size;
+	}
+}
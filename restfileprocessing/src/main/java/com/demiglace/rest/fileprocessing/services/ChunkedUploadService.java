@@ -0,0 +1,210 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.demiglace.rest.fileprocessing.model.UploadStatus;
+
+/**
+ * Resumable uploads sent as chunks. A client opens an upload with the file
+ * name and size, sends chunks in any order and in parallel, asks for the
+ * missing ranges after an interruption, and completes the upload to move
+ * the file into the upload directory. Open uploads are staged under
+ * {@code .uploads} in the upload directory, so completing one is a rename,
+ * and they are recovered from their journals on startup.
+ */
+@Service
+public class ChunkedUploadService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+	private final FileStorage storage;
+	private final Path stagingDir;
+	private final long maxFileSize;
+	private final long maxChunkSize;
+	private final long sessionTtlMillis;
+	private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+	public ChunkedUploadService(FileStorage storage,
+			@Value("${files.upload.max-file-size:107374182400}") long maxFileSize,
+			@Value("${files.upload.max-chunk-size:67108864}") long maxChunkSize,
+			@Value("${files.upload.session-ttl-minutes:1440}") long sessionTtlMinutes) {
+		this.storage = storage;
+		this.stagingDir = storage.getRoot().resolve(".uploads");
+		this.maxFileSize = maxFileSize;
+		this.maxChunkSize = maxChunkSize;
+		this.sessionTtlMillis = sessionTtlMinutes * 60_000;
+	}
+
+	@PostConstruct
+	void recover() throws IOException {
+		Files.createDirectories(stagingDir);
+		try (DirectoryStream<Path> journals = Files.newDirectoryStream(stagingDir, "*.upload")) {
+			for (Path journal : journals) {
+				try {
+					UploadSession session = UploadSession.recover(journal);
+					sessions.put(session.getId(), session);
+				}
+				catch (IOException | RuntimeException ex) {
+					LOGGER.warn("Discarding unreadable upload journal {}", journal, ex);
+					Files.deleteIfExists(journal);
+					Files.deleteIfExists(journal.resolveSibling(
+							journal.getFileName().toString().replace(".upload", ".part")));
+				}
+			}
+		}
+		LOGGER.info("Recovered {} open uploads", sessions.size());
+	}
+
+	public UploadStatus create(String fileName, long size) throws IOException {
+		if (size < 0 || size > maxFileSize) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"size must be between 0 and " + maxFileSize);
+		}
+		storage.resolve(fileName);
+		String id = UUID.randomUUID().toString();
+		UploadSession session = UploadSession.create(stagingDir, id, fileName, size);
+		sessions.put(id, session);
+		return session.status();
+	}
+
+	public UploadStatus status(String id) {
+		return session(id).status();
+	}
+
+	public UploadStatus writeChunk(String id, long offset, long length, InputStream in) throws IOException {
+		UploadSession session = session(id);
+		if (length < 0) {
+			throw new ResponseStatusException(HttpStatus.LENGTH_REQUIRED, "Chunks need a Content-Length");
+		}
+		if (length > maxChunkSize) {
+			throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+					"Chunks may not exceed " + maxChunkSize + " bytes");
+		}
+		if (offset < 0 || offset + length > session.getSize()) {
+			throw new ResponseStatusException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE,
+					"Chunk " + offset + "+" + length + " is outside the " + session.getSize() + " byte upload");
+		}
+		try {
+			session.write(offset, length, in);
+		}
+		catch (IllegalStateException ex) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, ex.getMessage());
+		}
+		return session.status();
+	}
+
+	/**
+	 * Hands a fully received upload to the {@link FileStorage}, replacing any
+	 * file of the same name.
+	 */
+	public Path complete(String id) throws IOException {
+		UploadSession session = session(id);
+		boolean sealed;
+		try {
+			sealed = session.seal();
+		}
+		catch (IllegalStateException ex) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, ex.getMessage());
+		}
+		if (!sealed) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT,
+					"Upload " + id + " is missing " + session.status().getMissing());
+		}
+		Path target;
+		try {
+			target = storage.store(session.getFileName(), session.getData());
+		}
+		catch (IOException | RuntimeException ex) {
+			reopen(session);
+			LOGGER.warn("Could not store upload {} of {}", id, session.getFileName(), ex);
+			throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+					"Upload " + id + " could not be stored; completing it can be retried", ex);
+		}
+		sessions.remove(id);
+		session.delete();
+		return target;
+	}
+
+	/**
+	 * Puts a sealed session whose data could not be stored back into service,
+	 * so the client can retry completing it without resending anything.
+	 */
+	private void reopen(UploadSession sealed) {
+		try {
+			sessions.replace(sealed.getId(), sealed, sealed.reopen());
+		}
+		catch (IOException ex) {
+			// the data file is gone or unreadable; the client has to start over
+			LOGGER.warn("Could not reopen upload {}", sealed.getId(), ex);
+			sessions.remove(sealed.getId(), sealed);
+		}
+	}
+
+	public void abort(String id) throws IOException {
+		UploadSession session = sessions.remove(id);
+		if (session == null) {
+			throw notFound(id);
+		}
+		session.abort();
+	}
+
+	@Scheduled(fixedDelayString = "${files.upload.sweep-interval-millis:60000}")
+	void expireIdleSessions() {
+		long cutoff = System.currentTimeMillis() - sessionTtlMillis;
+		sessions.values().removeIf(session -> {
+			if (session.getLastActivity() >= cutoff) {
+				return false;
+			}
+			try {
+				session.abort();
+				LOGGER.info("Expired idle upload {} of {}", session.getId(), session.getFileName());
+			}
+			catch (IOException ex) {
+				LOGGER.warn("Could not remove expired upload {}", session.getId(), ex);
+			}
+			return true;
+		});
+	}
+
+	@PreDestroy
+	void closeSessions() {
+		for (UploadSession session : sessions.values()) {
+			try {
+				session.close();
+			}
+			catch (IOException ex) {
+				LOGGER.warn("Could not close upload {}", session.getId(), ex);
+			}
+		}
+	}
+
+	private UploadSession session(String id) {
+		UploadSession session = sessions.get(id);
+		if (session == null) {
+			throw notFound(id);
+		}
+		return session;
+	}
+
+	private static ResponseStatusException notFound(String id) {
+		return new ResponseStatusException(HttpStatus.NOT_FOUND, "No such upload: " + id);
+	}
+}
@@ -0,0 +1,253 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Gzip variants of compressible files, built once in the background and
+ * served to clients that accept them instead of compressing per request.
+ *
+ * <p>A variant is named after the version of the file it was built from
+ * (see {@link FileStorage#version}), so a changed file never matches its old
+ * variant; the old one is deleted when the new one is built. Files that do
+ * not shrink by at least {@code files.compression.min-ratio} are remembered,
+ * up to a bound with the least recently requested forgotten first, and
+ * served as they are. A file stored without an event, such as one copied
+ * into the upload directory, gets its variant built the first time it is
+ * downloaded.
+ */
+@Service
+public class CompressedVariants {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CompressedVariants.class);
+
+	private static final int MAX_INCOMPRESSIBLE = 100_000;
+
+	private final FileStorage storage;
+	private final ContentTypeResolver contentTypes;
+	private final Path dir;
+	private final List<MediaType> mimeTypes;
+	private final long minSize;
+	private final double minRatio;
+	private final int level;
+	private final ThreadPoolExecutor executor;
+	private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+	// least recently seen first, so a full map forgets files nobody asks for any more
+	private final Map<String, Boolean> incompressible = Collections.synchronizedMap(
+			new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+					return size() > MAX_INCOMPRESSIBLE;
+				}
+			});
+
+	@Autowired
+	public CompressedVariants(FileStorage storage, ContentTypeResolver contentTypes,
+			@Value("${files.compression.mime-types:text/*,application/json,application/*+json,application/x-ndjson,application/xml,application/*+xml,application/javascript,image/svg+xml}") List<String> mimeTypes,
+			@Value("${files.compression.min-size:1024}") long minSize,
+			@Value("${files.compression.min-ratio:0.9}") double minRatio,
+			@Value("${files.compression.level:9}") int level,
+			@Value("${files.compression.max-queued:1000}") int maxQueued) throws IOException {
+		this.storage = storage;
+		this.contentTypes = contentTypes;
+		this.dir = Files.createDirectories(storage.getRoot().resolve(".gzip"));
+		this.mimeTypes = mimeTypes.stream().map(MediaType::parseMediaType).collect(Collectors.toList());
+		this.minSize = minSize;
+		this.minRatio = minRatio;
+		this.level = level;
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("compress-");
+		threadFactory.setThreadPriority(Thread.MIN_PRIORITY);
+		this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxQueued),
+				threadFactory);
+	}
+
+	public boolean isCompressible(String fileName) {
+		MediaType contentType = contentTypes.resolve(fileName);
+		return mimeTypes.stream().anyMatch(type -> type.includes(contentType));
+	}
+
+	/**
+	 * Whether an {@code Accept-Encoding} header admits gzip.
+	 */
+	public static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		boolean wildcard = false;
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.trim().split(";");
+			String name = parts[0].trim().toLowerCase(Locale.ROOT);
+			boolean accepted = true;
+			for (int i = 1; i < parts.length; i++) {
+				String param = parts[i].trim();
+				if (param.startsWith("q=")) {
+					try {
+						accepted = Double.parseDouble(param.substring(2)) > 0;
+					}
+					catch (NumberFormatException ex) {
+						accepted = false;
+					}
+				}
+			}
+			if ("gzip".equals(name) || "x-gzip".equals(name)) {
+				return accepted;
+			}
+			if ("*".equals(name)) {
+				wildcard = accepted;
+			}
+		}
+		return wildcard;
+	}
+
+	@EventListener
+	public void onFileStored(FileStoredEvent event) {
+		try {
+			schedule(event.getFileName(), event.getFile());
+		}
+		catch (IOException ex) {
+			LOGGER.warn("Could not schedule compression of {}", event.getFileName(), ex);
+		}
+	}
+
+	/**
+	 * The current gzip variant of {@code fileName}, or null if there is none
+	 * yet; in that case one is scheduled if the file is worth compressing.
+	 */
+	public Path gzip(String fileName, Path file) throws IOException {
+		if (!isCompressible(fileName) || Files.size(file) < minSize) {
+			return null;
+		}
+		String key = key(fileName, file);
+		Path variant = variant(key);
+		if (Files.isRegularFile(variant)) {
+			return variant;
+		}
+		schedule(fileName, file);
+		return null;
+	}
+
+	private void schedule(String fileName, Path file) throws IOException {
+		if (!isCompressible(fileName) || Files.size(file) < minSize) {
+			return;
+		}
+		String key = key(fileName, file);
+		// get rather than containsKey, so the lookup counts as a use
+		if (incompressible.get(key) != null || Files.isRegularFile(variant(key)) || !inFlight.add(key)) {
+			return;
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					build(fileName, file, key);
+				}
+				catch (IOException ex) {
+					LOGGER.warn("Could not compress {}", fileName, ex);
+				}
+				finally {
+					inFlight.remove(key);
+				}
+			});
+		}
+		catch (RejectedExecutionException ex) {
+			// the queue is full; the next download of the file asks again
+			inFlight.remove(key);
+		}
+	}
+
+	private void build(String fileName, Path file, String key) throws IOException {
+		Path variant = variant(key);
+		Files.createDirectories(variant.getParent());
+		Path temp = Files.createTempFile(variant.getParent(), ".gzip", null);
+		try {
+			try (OutputStream out = new LevelGzipOutputStream(Files.newOutputStream(temp), level)) {
+				Files.copy(file, out);
+			}
+			if (Files.size(temp) > Files.size(file) * minRatio) {
+				incompressible.put(key, Boolean.TRUE);
+				return;
+			}
+			Files.move(temp, variant, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+		deleteStale(key);
+	}
+
+	/**
+	 * Deletes the variants of earlier versions of the same name. Variants of
+	 * content-addressed files are keyed by content alone, so they never go
+	 * stale and may be shared between names.
+	 */
+	private void deleteStale(String key) throws IOException {
+		int separator = key.indexOf('-');
+		if (separator < 0) {
+			return;
+		}
+		Path shard = variant(key).getParent();
+		try (DirectoryStream<Path> versions = Files.newDirectoryStream(shard, key.substring(0, separator + 1) + "*.gz")) {
+			for (Path version : versions) {
+				if (!version.getFileName().toString().equals(key + ".gz")) {
+					Files.deleteIfExists(version);
+				}
+			}
+		}
+	}
+
+	private String key(String fileName, Path file) throws IOException {
+		byte[] hash = storage.knownHash(fileName);
+		if (hash != null) {
+			return Hashes.toHex(hash);
+		}
+		String name = Hashes.toHex(Hashes.sha256().digest(fileName.getBytes(StandardCharsets.UTF_8)));
+		String version = Hashes.toHex(
+				Hashes.sha256().digest(storage.version(fileName, file).getBytes(StandardCharsets.UTF_8)));
+		return name + "-" + version.substring(0, 16);
+	}
+
+	private Path variant(String key) {
+		return dir.resolve(key.substring(0, 2)).resolve(key + ".gz");
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private static class LevelGzipOutputStream extends GZIPOutputStream {
+
+		LevelGzipOutputStream(OutputStream out, int level) throws IOException {
+			super(out, 64 * 1024);
+			def.setLevel(level);
+		}
+	}
+}
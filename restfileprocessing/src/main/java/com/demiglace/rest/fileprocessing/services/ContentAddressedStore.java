@@ -0,0 +1,107 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Set;
+
+/**
+ * Stores each distinct content once, as {@code .blobs/ab/cd/abcd...} under
+ * the upload directory, and maps file names to content hashes through a
+ * {@link NameIndex}. Two levels of 256 shard directories keep every
+ * directory small at millions of blobs. Blobs are never rewritten; a name
+ * that is overwritten leaves its old blob in place.
+ */
+class ContentAddressedStore implements Closeable {
+
+	private final Path blobs;
+	private final Path tmp;
+	private final NameIndex index;
+
+	ContentAddressedStore(Path root) throws IOException {
+		this.blobs = Files.createDirectories(root.resolve(".blobs"));
+		this.tmp = Files.createDirectories(root.resolve(".tmp"));
+		this.index = new NameIndex(root.resolve(".index").resolve("names.log"));
+	}
+
+	Path locate(String name) {
+		byte[] hash = index.get(name);
+		return hash == null ? null : blob(Hashes.toHex(hash));
+	}
+
+	byte[] hash(String name) {
+		return index.get(name);
+	}
+
+	Set<String> names() {
+		return index.names();
+	}
+
+	/**
+	 * Copies {@code in} to a temporary file, hashing it on the way, then
+	 * either moves it into place or, if the content is already stored, drops
+	 * it.
+	 */
+	Path store(String name, InputStream in) throws IOException {
+		MessageDigest digest = Hashes.sha256();
+		Path temp = Files.createTempFile(tmp, "blob", null);
+		try {
+			try (OutputStream out = Files.newOutputStream(temp);
+					DigestInputStream hashing = new DigestInputStream(in, digest)) {
+				hashing.transferTo(out);
+			}
+			return commit(name, temp, digest.digest());
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Stores a file that is already complete on the same file system. The
+	 * file is moved into place when its content is new and left where it is
+	 * otherwise.
+	 */
+	Path store(String name, Path file) throws IOException {
+		return commit(name, file, Hashes.sha256(file));
+	}
+
+	/**
+	 * Points {@code name} at content that is already stored, without any
+	 * bytes being sent. Returns false if no blob has that hash.
+	 */
+	boolean link(String name, String sha256) throws IOException {
+		byte[] hash = Hashes.fromHex(sha256.toLowerCase());
+		if (hash.length != 32 || !Files.isRegularFile(blob(Hashes.toHex(hash)))) {
+			return false;
+		}
+		index.put(name, hash);
+		return true;
+	}
+
+	private Path commit(String name, Path file, byte[] hash) throws IOException {
+		Path blob = blob(Hashes.toHex(hash));
+		if (!Files.exists(blob)) {
+			Files.createDirectories(blob.getParent());
+			// a concurrent upload of the same content may win the rename; the bytes are identical either way
+			Files.move(file, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		index.put(name, hash);
+		return blob;
+	}
+
+	private Path blob(String hex) {
+		return blobs.resolve(hex.substring(0, 2)).resolve(hex.substring(2, 4)).resolve(hex);
+	}
+
+	@Override
+	public void close() throws IOException {
+		index.close();
+	}
+}
@@ -0,0 +1,58 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Detects the content type of stored files from their names. Detection goes
+ * to the platform file type detectors first and falls back to Spring's
+ * extension table; the result is cached per extension. Names are used
+ * rather than paths because content-addressed blobs have no extension.
+ */
+@Component
+public class ContentTypeResolver {
+
+	private static final int MAX_CACHED_EXTENSIONS = 1024;
+
+	private final Map<String, MediaType> byExtension = new ConcurrentHashMap<>();
+
+	public MediaType resolve(String fileName) {
+		String extension = StringUtils.getFilenameExtension(fileName);
+		if (extension == null) {
+			return detect(fileName);
+		}
+		String key = extension.toLowerCase(Locale.ROOT);
+		MediaType cached = byExtension.get(key);
+		if (cached != null) {
+			return cached;
+		}
+		MediaType detected = detect(fileName);
+		if (byExtension.size() < MAX_CACHED_EXTENSIONS) {
+			byExtension.putIfAbsent(key, detected);
+		}
+		return detected;
+	}
+
+	private MediaType detect(String fileName) {
+		try {
+			String probed = Files.probeContentType(Paths.get(fileName));
+			if (probed != null) {
+				return MediaType.parseMediaType(probed);
+			}
+		}
+		catch (IOException | IllegalArgumentException ex) {
+			// fall through to the extension table
+		}
+		return MediaTypeFactory.getMediaType(fileName)
+				.orElse(MediaType.APPLICATION_OCTET_STREAM);
+	}
+}
@@ -0,0 +1,280 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.demiglace.rest.fileprocessing.model.FileMetadata;
+import com.demiglace.rest.fileprocessing.model.FilePage;
+
+/**
+ * Metadata of every stored file, held in a sorted map so a page of a
+ * listing costs a seek plus the page, however many files there are.
+ *
+ * <p>The index is built once at startup, statting files in parallel, and is
+ * then kept current by {@link FileStoredEvent}s and, in the flat layout, by
+ * a {@link WatchService} on the upload directory, which also catches files
+ * added or removed behind the service's back. An overflowed watch queue
+ * triggers a rescan. Hashes of flat files are computed by a background
+ * worker and appear once they are known; content-addressed files have them
+ * from the start.
+ */
+@Service
+public class FileIndex {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FileIndex.class);
+
+	private final FileStorage storage;
+	private final ContentTypeResolver contentTypes;
+	private final int maxPageSize;
+	private final ConcurrentSkipListMap<String, FileMetadata> files = new ConcurrentSkipListMap<>();
+	private final Set<String> hashQueued = ConcurrentHashMap.newKeySet();
+	private final ExecutorService hasher;
+	private WatchService watchService;
+
+	@Autowired
+	public FileIndex(FileStorage storage, ContentTypeResolver contentTypes,
+			@Value("${files.listing.max-page-size:1000}") int maxPageSize) {
+		this.storage = storage;
+		this.contentTypes = contentTypes;
+		this.maxPageSize = maxPageSize;
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("file-hash-");
+		threadFactory.setThreadPriority(Thread.MIN_PRIORITY);
+		threadFactory.setDaemon(true);
+		this.hasher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+				threadFactory);
+	}
+
+	@PostConstruct
+	public void start() throws IOException {
+		if (!storage.isContentAddressed()) {
+			// watch before the scan so nothing that changes during it is missed
+			watchService = storage.getRoot().getFileSystem().newWatchService();
+			storage.getRoot().register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+			Thread watcher = new Thread(this::watch, "file-index-watcher");
+			watcher.setDaemon(true);
+			watcher.start();
+		}
+		rescan();
+	}
+
+	/**
+	 * Rebuilds the index from storage, statting files in parallel.
+	 */
+	public void rescan() throws IOException {
+		long started = System.nanoTime();
+		List<String> names;
+		if (storage.isContentAddressed()) {
+			names = new ArrayList<>(storage.contentAddressedNames());
+		}
+		else {
+			try (Stream<Path> list = Files.list(storage.getRoot())) {
+				names = list.map(path -> path.getFileName().toString())
+						.filter(name -> !name.startsWith("."))
+						.collect(Collectors.toList());
+			}
+		}
+		Set<String> present = ConcurrentHashMap.newKeySet();
+		names.parallelStream().forEach(name -> {
+			if (refresh(name)) {
+				present.add(name);
+			}
+		});
+		for (String name : files.keySet()) {
+			// re-checked rather than dropped, as it may have been stored while the scan ran
+			if (!present.contains(name)) {
+				refresh(name);
+			}
+		}
+		LOGGER.info("Indexed {} files in {} ms", files.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+	}
+
+	@EventListener
+	public void onFileStored(FileStoredEvent event) {
+		refresh(event.getFileName());
+	}
+
+	public FileMetadata get(String fileName) {
+		storage.resolve(fileName);
+		return files.get(fileName);
+	}
+
+	/**
+	 * Up to {@code limit} files whose names start with {@code prefix}, in name
+	 * order, beginning after the name {@code after}.
+	 */
+	public FilePage list(String prefix, String after, int limit) {
+		if (limit < 1 || limit > maxPageSize) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxPageSize);
+		}
+		boolean hasPrefix = prefix != null && !prefix.isEmpty();
+		boolean hasAfter = after != null && !after.isEmpty();
+		NavigableMap<String, FileMetadata> range;
+		if (hasPrefix) {
+			String end = prefix + Character.MAX_VALUE;
+			if (hasAfter && after.compareTo(end) >= 0) {
+				return new FilePage(List.of(), null);
+			}
+			// an after before the prefix range starts the page at the prefix
+			range = hasAfter && after.compareTo(prefix) >= 0 ? files.subMap(after, false, end, false)
+					: files.subMap(prefix, true, end, false);
+		}
+		else {
+			range = hasAfter ? files.tailMap(after, false) : files;
+		}
+		List<FileMetadata> page = new ArrayList<>(Math.min(limit, 64));
+		for (FileMetadata metadata : range.values()) {
+			if (page.size() == limit) {
+				return new FilePage(page, page.get(page.size() - 1).getName());
+			}
+			page.add(metadata);
+		}
+		return new FilePage(page, null);
+	}
+
+	public int size() {
+		return files.size();
+	}
+
+	/**
+	 * Re-reads the metadata of one file. Returns whether the file exists.
+	 */
+	private boolean refresh(String name) {
+		Path file = storage.locate(name);
+		if (file == null) {
+			files.remove(name);
+			return false;
+		}
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			if (!attributes.isRegularFile()) {
+				files.remove(name);
+				return false;
+			}
+			byte[] hash = storage.knownHash(name);
+			FileMetadata previous = files.get(name);
+			String sha256 = hash != null ? Hashes.toHex(hash) : null;
+			if (sha256 == null && previous != null && previous.getSha256() != null
+					&& previous.getSize() == attributes.size()
+					&& previous.getLastModified().equals(attributes.lastModifiedTime().toInstant())) {
+				sha256 = previous.getSha256();
+			}
+			FileMetadata metadata = new FileMetadata(name, attributes.size(),
+					attributes.lastModifiedTime().toInstant(), contentTypes.resolve(name).toString(), sha256);
+			files.put(name, metadata);
+			if (sha256 == null) {
+				queueHash(name);
+			}
+			return true;
+		}
+		catch (NoSuchFileException ex) {
+			files.remove(name);
+			return false;
+		}
+		catch (IOException ex) {
+			LOGGER.warn("Could not read attributes of {}", name, ex);
+			return files.containsKey(name);
+		}
+	}
+
+	private void queueHash(String name) {
+		if (!hashQueued.add(name)) {
+			return;
+		}
+		hasher.execute(() -> {
+			hashQueued.remove(name);
+			FileMetadata metadata = files.get(name);
+			Path file = storage.locate(name);
+			if (metadata == null || metadata.getSha256() != null || file == null) {
+				return;
+			}
+			try {
+				String sha256 = Hashes.toHex(Hashes.sha256(file));
+				BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+				// only record the hash if the file did not change while it was read
+				if (attributes.size() == metadata.getSize()
+						&& attributes.lastModifiedTime().toInstant().equals(metadata.getLastModified())) {
+					files.replace(name, metadata, metadata.withSha256(sha256));
+				}
+			}
+			catch (IOException ex) {
+				LOGGER.debug("Could not hash {}", name, ex);
+			}
+		});
+	}
+
+	private void watch() {
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == OVERFLOW) {
+						rescan();
+						continue;
+					}
+					String name = ((Path) event.context()).getFileName().toString();
+					if (!name.startsWith(".")) {
+						refresh(name);
+					}
+				}
+				if (!key.reset()) {
+					LOGGER.warn("Upload directory is no longer watched");
+					return;
+				}
+			}
+		}
+		catch (ClosedWatchServiceException ex) {
+			// shutting down
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		catch (IOException ex) {
+			LOGGER.error("Watching the upload directory failed", ex);
+		}
+	}
+
+	@PreDestroy
+	public void stop() throws IOException {
+		hasher.shutdownNow();
+		if (watchService != null) {
+			watchService.close();
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Writes a file, or byte ranges of it, to a servlet response without
+ * reading it onto the heap. Full and single-range responses above
+ * {@code files.download.sendfile-min-size} are handed to the container's
+ * sendfile support when it has one (Tomcat NIO does), so the kernel copies
+ * the bytes straight to the socket; otherwise the file channel is
+ * transferred into the response stream. Multiple ranges are sent as
+ * {@code multipart/byteranges}.
+ */
+@Component
+public class FileSender {
+
+	private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+	private final long sendfileMinSize;
+
+	public FileSender(@Value("${files.download.sendfile-min-size:49152}") long sendfileMinSize) {
+		this.sendfileMinSize = sendfileMinSize;
+	}
+
+	public void send(Path file, MediaType contentType, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		long length = Files.size(file);
+		response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+		response.setDateHeader(HttpHeaders.LAST_MODIFIED, Files.getLastModifiedTime(file).toMillis());
+		boolean head = HttpMethod.HEAD.matches(request.getMethod());
+
+		List<HttpRange> ranges;
+		try {
+			ranges = rangesToServe(request, response, length);
+		}
+		catch (IllegalArgumentException ex) {
+			response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+			response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+			return;
+		}
+
+		if (ranges.isEmpty()) {
+			response.setContentType(contentType.toString());
+			sendRegion(file, 0, length, head, request, response);
+		}
+		else if (ranges.size() == 1) {
+			long start = ranges.get(0).getRangeStart(length);
+			long end = ranges.get(0).getRangeEnd(length);
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			response.setContentType(contentType.toString());
+			response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(start, end, length));
+			sendRegion(file, start, end - start + 1, head, request, response);
+		}
+		else {
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			sendMultipart(file, contentType, ranges, length, head, response);
+		}
+	}
+
+	/**
+	 * The ranges to answer with, or an empty list for the whole file. A range
+	 * conditioned by {@code If-Range} on a different validator is ignored;
+	 * ranges that cannot be satisfied, or that together ask for more than the
+	 * file holds, are rejected.
+	 */
+	private List<HttpRange> rangesToServe(HttpServletRequest request, HttpServletResponse response, long length) {
+		String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+		if (ifRange != null && !ifRange.equals(response.getHeader(HttpHeaders.LAST_MODIFIED))) {
+			return List.of();
+		}
+		List<HttpRange> ranges = HttpRange.parseRanges(request.getHeader(HttpHeaders.RANGE));
+		long total = 0;
+		for (HttpRange range : ranges) {
+			// HttpRange does not check a range's start against the length
+			if (length == 0 || range.getRangeStart(length) >= length) {
+				throw new IllegalArgumentException("Range starts beyond the end of the file");
+			}
+			total += range.getRangeEnd(length) - range.getRangeStart(length) + 1;
+		}
+		if (ranges.size() > 1 && total > length) {
+			throw new IllegalArgumentException("Requested ranges exceed the file length");
+		}
+		return ranges;
+	}
+
+	private void sendRegion(Path file, long position, long count, boolean head, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+		response.setContentLengthLong(count);
+		if (head || count == 0) {
+			return;
+		}
+		if (count >= sendfileMinSize && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+			request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+			request.setAttribute(SENDFILE_START, position);
+			request.setAttribute(SENDFILE_END, position + count);
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			transfer(channel, position, count, Channels.newChannel(response.getOutputStream()));
+		}
+	}
+
+	private void sendMultipart(Path file, MediaType contentType, List<HttpRange> ranges, long length, boolean head,
+			HttpServletResponse response) throws IOException {
+		String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+		response.setContentType("multipart/byteranges; boundary=" + boundary);
+		if (head) {
+			return;
+		}
+		OutputStream out = response.getOutputStream();
+		WritableByteChannel target = Channels.newChannel(out);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			for (HttpRange range : ranges) {
+				long start = range.getRangeStart(length);
+				long end = range.getRangeEnd(length);
+				print(out, "\r\n--" + boundary + "\r\n");
+				print(out, HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n");
+				print(out, HttpHeaders.CONTENT_RANGE + ": " + contentRange(start, end, length) + "\r\n\r\n");
+				transfer(channel, start, end - start + 1, target);
+			}
+		}
+		print(out, "\r\n--" + boundary + "--\r\n");
+	}
+
+	private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target)
+			throws IOException {
+		while (count > 0) {
+			long sent = channel.transferTo(position, count, target);
+			if (sent <= 0) {
+				throw new EOFException("File ended before byte " + (position + count));
+			}
+			position += sent;
+			count -= sent;
+		}
+	}
+
+	private static String contentRange(long start, long end, long length) {
+		return "bytes " + start + "-" + end + "/" + length;
+	}
+
+	private static void print(OutputStream out, String text) throws IOException {
+		out.write(text.getBytes(StandardCharsets.US_ASCII));
+	}
+}
@@ -0,0 +1,187 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Set;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * The upload directory. File names from requests are only ever resolved
+ * through {@link #resolve(String)}, which refuses anything that would land
+ * outside it. Names starting with a dot are reserved for the service's own
+ * bookkeeping.
+ *
+ * <p>With {@code files.storage.content-addressed} set, files are kept in a
+ * {@link ContentAddressedStore} instead of under their own names, so
+ * identical uploads share one copy and same-name uploads no longer race on
+ * one path.
+ *
+ * <p>Every store publishes a {@link FileStoredEvent}.
+ */
+@Component
+public class FileStorage {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FileStorage.class);
+
+	private final Path root;
+	private final ContentAddressedStore contentStore;
+	private ApplicationEventPublisher eventPublisher = event -> {
+	};
+
+	public FileStorage(String uploadDir) throws IOException {
+		this(uploadDir, false);
+	}
+
+	@Autowired
+	public FileStorage(@Value("${uploadDir}") String uploadDir,
+			@Value("${files.storage.content-addressed:false}") boolean contentAddressed) throws IOException {
+		this.root = Files.createDirectories(Paths.get(uploadDir).toAbsolutePath().normalize());
+		this.contentStore = contentAddressed ? new ContentAddressedStore(root) : null;
+		if (contentAddressed) {
+			LOGGER.info("Content-addressed storage in {}", root);
+		}
+	}
+
+	@Autowired
+	public void setEventPublisher(ApplicationEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
+	}
+
+	public Path getRoot() {
+		return root;
+	}
+
+	public boolean isContentAddressed() {
+		return contentStore != null;
+	}
+
+	public Path resolve(String fileName) {
+		Path path = fileName == null || fileName.startsWith(".") ? null : root.resolve(fileName).normalize();
+		if (path == null || !root.equals(path.getParent())) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid file name: " + fileName);
+		}
+		return path;
+	}
+
+	/**
+	 * The file stored under {@code fileName}, or null if there is none.
+	 */
+	public Path locate(String fileName) {
+		Path path = resolve(fileName);
+		if (contentStore != null) {
+			return contentStore.locate(fileName);
+		}
+		return Files.isRegularFile(path) ? path : null;
+	}
+
+	/**
+	 * The names of all files in content-addressed storage. In the flat
+	 * layout, list {@link #getRoot()} instead.
+	 */
+	public Set<String> contentAddressedNames() {
+		if (contentStore == null) {
+			throw new IllegalStateException("Storage is not content-addressed");
+		}
+		return contentStore.names();
+	}
+
+	/**
+	 * The SHA-256 of the content stored under {@code fileName} if the store
+	 * already knows it, otherwise null.
+	 */
+	public byte[] knownHash(String fileName) {
+		return contentStore == null ? null : contentStore.hash(fileName);
+	}
+
+	/**
+	 * A string that changes whenever the content stored under
+	 * {@code fileName} does: its SHA-256 when the store knows it, otherwise
+	 * the file's size and modification time. Derived data such as thumbnails
+	 * and compressed variants is keyed by it.
+	 */
+	public String version(String fileName, Path file) throws IOException {
+		byte[] hash = knownHash(fileName);
+		if (hash != null) {
+			return Hashes.toHex(hash);
+		}
+		return file + "|" + Files.size(file) + "|" + Files.getLastModifiedTime(file).toMillis();
+	}
+
+	public Path store(String fileName, InputStream in) throws IOException {
+		Path path = resolve(fileName);
+		if (contentStore != null) {
+			return stored(fileName, contentStore.store(fileName, in));
+		}
+		Path temp = Files.createTempFile(root, ".upload", null);
+		try {
+			Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+			return stored(fileName,
+					Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE));
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Stores a complete file from elsewhere in the upload directory. The file
+	 * may be moved; whatever is left at {@code file} afterwards is the
+	 * caller's to delete.
+	 */
+	public Path store(String fileName, Path file) throws IOException {
+		Path path = resolve(fileName);
+		if (contentStore != null) {
+			return stored(fileName, contentStore.store(fileName, file));
+		}
+		return stored(fileName,
+				Files.move(file, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE));
+	}
+
+	/**
+	 * Stores {@code fileName} as a copy of content that is already stored,
+	 * in constant time. Only content-addressed storage can do this.
+	 */
+	public boolean link(String fileName, String sha256) throws IOException {
+		resolve(fileName);
+		if (contentStore == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Storage is not content-addressed");
+		}
+		boolean linked;
+		try {
+			linked = contentStore.link(fileName, sha256);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid SHA-256: " + sha256);
+		}
+		if (linked) {
+			stored(fileName, contentStore.locate(fileName));
+		}
+		return linked;
+	}
+
+	private Path stored(String fileName, Path file) {
+		eventPublisher.publishEvent(new FileStoredEvent(this, fileName, file));
+		return file;
+	}
+
+	@PreDestroy
+	void close() throws IOException {
+		if (contentStore != null) {
+			contentStore.close();
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.nio.file.Path;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published by {@link FileStorage} after a file has been stored under a name.
+ */
+public class FileStoredEvent extends ApplicationEvent {
+
+	private final String fileName;
+	private final Path file;
+
+	public FileStoredEvent(Object source, String fileName, Path file) {
+		super(source);
+		this.fileName = fileName;
+		this.file = file;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+}
@@ -0,0 +1,83 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps file names to the SHA-256 of their content. Hashes are held as raw
+ * 32-byte arrays, and every change is appended to a log that is compacted
+ * when the index is opened, so the on-disk form stays one line per name.
+ */
+class NameIndex implements Closeable {
+
+	private final Map<String, byte[]> hashes = new ConcurrentHashMap<>();
+	private final FileChannel log;
+
+	NameIndex(Path logFile) throws IOException {
+		Files.createDirectories(logFile.getParent());
+		if (Files.exists(logFile)) {
+			load(logFile);
+		}
+		Path compacted = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(compacted, StandardCharsets.US_ASCII)) {
+			for (Map.Entry<String, byte[]> entry : hashes.entrySet()) {
+				writer.write(line(entry.getKey(), entry.getValue()));
+			}
+		}
+		Files.move(compacted, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		this.log = FileChannel.open(logFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+
+	private void load(Path logFile) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.US_ASCII)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split(" ");
+				// skips a torn last line left by a crash
+				if (fields.length == 2 && fields[0].length() == 64) {
+					hashes.put(URLDecoder.decode(fields[1], StandardCharsets.UTF_8), Hashes.fromHex(fields[0]));
+				}
+			}
+		}
+	}
+
+	byte[] get(String name) {
+		return hashes.get(name);
+	}
+
+	Set<String> names() {
+		return Collections.unmodifiableSet(hashes.keySet());
+	}
+
+	synchronized void put(String name, byte[] hash) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(line(name, hash).getBytes(StandardCharsets.US_ASCII));
+		while (buffer.hasRemaining()) {
+			log.write(buffer);
+		}
+		hashes.put(name, hash);
+	}
+
+	@Override
+	public void close() throws IOException {
+		log.close();
+	}
+
+	private static String line(String name, byte[] hash) {
+		return Hashes.toHex(hash) + " " + URLEncoder.encode(name, StandardCharsets.UTF_8) + "\n";
+	}
+}
@@ -0,0 +1,58 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.demiglace.rest.fileprocessing.model.ByteRange;
+
+/**
+ * The byte ranges of an upload received so far, kept merged so the cost of
+ * a lookup depends on the number of gaps rather than the number of chunks.
+ * Not thread-safe.
+ */
+class ReceivedRanges {
+
+	private final TreeMap<Long, Long> ranges = new TreeMap<>();
+	private long total;
+
+	void add(long start, long end) {
+		if (start >= end) {
+			return;
+		}
+		Map.Entry<Long, Long> floor = ranges.floorEntry(start);
+		if (floor != null && floor.getValue() >= start) {
+			start = floor.getKey();
+			end = Math.max(end, floor.getValue());
+		}
+		Map.Entry<Long, Long> next = ranges.ceilingEntry(start);
+		while (next != null && next.getKey() <= end) {
+			end = Math.max(end, next.getValue());
+			total -= next.getValue() - next.getKey();
+			ranges.remove(next.getKey());
+			next = ranges.ceilingEntry(start);
+		}
+		ranges.put(start, end);
+		total += end - start;
+	}
+
+	long total() {
+		return total;
+	}
+
+	List<ByteRange> missing(long size) {
+		List<ByteRange> gaps = new ArrayList<>();
+		long position = 0;
+		for (Map.Entry<Long, Long> range : ranges.entrySet()) {
+			if (range.getKey() > position) {
+				gaps.add(new ByteRange(position, range.getKey()));
+			}
+			position = range.getValue();
+		}
+		if (position < size) {
+			gaps.add(new ByteRange(position, size));
+		}
+		return gaps;
+	}
+}
@@ -0,0 +1,39 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.nio.file.Path;
+
+import org.springframework.http.MediaType;
+
+/**
+ * A resized image, either held in memory or stored on disk.
+ */
+public class Thumbnail {
+
+	private final MediaType contentType;
+	private final byte[] data;
+	private final Path file;
+
+	Thumbnail(MediaType contentType, byte[] data, Path file) {
+		this.contentType = contentType;
+		this.data = data;
+		this.file = file;
+	}
+
+	public MediaType getContentType() {
+		return contentType;
+	}
+
+	/**
+	 * The image bytes if the thumbnail is in the memory tier, otherwise null.
+	 */
+	public byte[] getData() {
+		return data;
+	}
+
+	/**
+	 * The file in the disk tier holding the image.
+	 */
+	public Path getFile() {
+		return file;
+	}
+}
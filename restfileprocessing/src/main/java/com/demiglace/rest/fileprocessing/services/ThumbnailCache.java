@@ -0,0 +1,133 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+
+/**
+ * Two LRU tiers of resized images: a small one of byte arrays in memory and
+ * a larger one of files on disk, each capped in bytes. Every thumbnail is
+ * written to disk; small ones are also kept in memory. The disk tier is
+ * reloaded from its directory on startup, oldest first.
+ */
+class ThumbnailCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ThumbnailCache.class);
+
+	private final Path dir;
+	private final long memoryMaxBytes;
+	private final long diskMaxBytes;
+	private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+	private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+	private long memoryBytes;
+	private long diskBytes;
+
+	ThumbnailCache(Path dir, long memoryMaxBytes, long diskMaxBytes) throws IOException {
+		this.dir = Files.createDirectories(dir);
+		this.memoryMaxBytes = memoryMaxBytes;
+		this.diskMaxBytes = diskMaxBytes;
+		List<Path> files;
+		try (Stream<Path> list = Files.list(dir)) {
+			files = list.filter(file -> !file.getFileName().toString().startsWith("."))
+					.sorted(Comparator.comparing(ThumbnailCache::lastModified))
+					.collect(Collectors.toList());
+		}
+		for (Path file : files) {
+			long size = Files.size(file);
+			disk.put(file.getFileName().toString(), size);
+			diskBytes += size;
+		}
+		evictDisk();
+	}
+
+	/**
+	 * The thumbnail stored under {@code key}, or null. Keys end in the image
+	 * format's extension, which gives the content type.
+	 */
+	synchronized Thumbnail get(String key) {
+		byte[] data = memory.get(key);
+		if (data != null) {
+			disk.get(key);
+			return thumbnail(key, data);
+		}
+		return disk.get(key) != null ? thumbnail(key, null) : null;
+	}
+
+	Thumbnail put(String key, byte[] data) throws IOException {
+		Path file = dir.resolve(key);
+		Path temp = Files.createTempFile(dir, ".thumbnail", null);
+		try {
+			Files.write(temp, data);
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+		synchronized (this) {
+			Long previous = disk.put(key, (long) data.length);
+			diskBytes += data.length - (previous == null ? 0 : previous);
+			if (data.length <= memoryMaxBytes / 16) {
+				byte[] replaced = memory.put(key, data);
+				memoryBytes += data.length - (replaced == null ? 0 : replaced.length);
+			}
+			evictMemory();
+			evictDisk();
+		}
+		return thumbnail(key, data);
+	}
+
+	private Thumbnail thumbnail(String key, byte[] data) {
+		MediaType contentType = MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM);
+		return new Thumbnail(contentType, data, dir.resolve(key));
+	}
+
+	private void evictMemory() {
+		Iterator<byte[]> eldest = memory.values().iterator();
+		while (memoryBytes > memoryMaxBytes && eldest.hasNext()) {
+			memoryBytes -= eldest.next().length;
+			eldest.remove();
+		}
+	}
+
+	private void evictDisk() {
+		Iterator<Map.Entry<String, Long>> eldest = disk.entrySet().iterator();
+		while (diskBytes > diskMaxBytes && eldest.hasNext()) {
+			Map.Entry<String, Long> entry = eldest.next();
+			eldest.remove();
+			diskBytes -= entry.getValue();
+			byte[] data = memory.remove(entry.getKey());
+			if (data != null) {
+				memoryBytes -= data.length;
+			}
+			try {
+				Files.deleteIfExists(dir.resolve(entry.getKey()));
+			}
+			catch (IOException ex) {
+				LOGGER.warn("Could not delete evicted thumbnail {}", entry.getKey(), ex);
+			}
+		}
+	}
+
+	private static FileTime lastModified(Path file) {
+		try {
+			return Files.getLastModifiedTime(file);
+		}
+		catch (IOException ex) {
+			return FileTime.fromMillis(0);
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Resized variants of stored images, fitted inside the requested width and
+ * height without upscaling. Variants are cached in a {@link ThumbnailCache}
+ * keyed by the source's content, so replacing a file invalidates its
+ * variants. Concurrent requests for one variant share a single resize, and
+ * resizes run on a small fixed pool with a bounded queue: a burst beyond it
+ * is answered with 503 rather than queued without limit.
+ */
+@Service
+public class ThumbnailService {
+
+	private final FileStorage storage;
+	private final ThumbnailCache cache;
+	private final ThreadPoolExecutor executor;
+	private final int maxDimension;
+	private final long maxSourcePixels;
+	private final long timeoutMillis;
+	private final Map<String, CompletableFuture<Thumbnail>> inFlight = new ConcurrentHashMap<>();
+
+	@Autowired
+	public ThumbnailService(FileStorage storage,
+			@Value("${files.thumbnails.memory-max-bytes:16777216}") long memoryMaxBytes,
+			@Value("${files.thumbnails.disk-max-bytes:1073741824}") long diskMaxBytes,
+			@Value("${files.thumbnails.max-concurrency:0}") int maxConcurrency,
+			@Value("${files.thumbnails.max-queued:64}") int maxQueued,
+			@Value("${files.thumbnails.max-dimension:2048}") int maxDimension,
+			@Value("${files.thumbnails.max-source-pixels:100000000}") long maxSourcePixels,
+			@Value("${files.thumbnails.timeout-millis:30000}") long timeoutMillis) throws IOException {
+		this.storage = storage;
+		this.cache = new ThumbnailCache(storage.getRoot().resolve(".thumbnails"), memoryMaxBytes, diskMaxBytes);
+		int threads = maxConcurrency > 0 ? maxConcurrency
+				: Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(maxQueued), new CustomizableThreadFactory("thumbnail-"));
+		this.maxDimension = maxDimension;
+		this.maxSourcePixels = maxSourcePixels;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * The variant of {@code fileName} that fits in {@code width} by
+	 * {@code height}; either may be null to constrain only the other.
+	 */
+	public Thumbnail thumbnail(String fileName, Path source, Integer width, Integer height) throws IOException {
+		int maxWidth = bound("w", width);
+		int maxHeight = bound("h", height);
+		String format = outputFormat(fileName);
+		String key = key(fileName, source, maxWidth, maxHeight, format);
+		Thumbnail cached = cache.get(key);
+		if (cached != null) {
+			return cached;
+		}
+		return produce(key, source, maxWidth, maxHeight, format, true);
+	}
+
+	/**
+	 * Like {@link #thumbnail}, but always resizes (or joins a resize already
+	 * running) and returns the image in memory. For when a cached variant's
+	 * file was evicted before it could be sent.
+	 */
+	public Thumbnail resize(String fileName, Path source, Integer width, Integer height) throws IOException {
+		int maxWidth = bound("w", width);
+		int maxHeight = bound("h", height);
+		String format = outputFormat(fileName);
+		return produce(key(fileName, source, maxWidth, maxHeight, format), source, maxWidth, maxHeight, format,
+				false);
+	}
+
+	private String key(String fileName, Path source, int maxWidth, int maxHeight, String format) throws IOException {
+		return Hashes.toHex(Hashes.sha256().digest(
+				(storage.version(fileName, source) + "|" + maxWidth + "x" + maxHeight).getBytes(StandardCharsets.UTF_8)))
+				+ "." + format;
+	}
+
+	private Thumbnail produce(String key, Path source, int maxWidth, int maxHeight, String format,
+			boolean recheckCache) throws IOException {
+		CompletableFuture<Thumbnail> created = new CompletableFuture<>();
+		CompletableFuture<Thumbnail> pending = inFlight.putIfAbsent(key, created);
+		if (pending == null) {
+			pending = created;
+			// a resize may have finished between the cache lookup and claiming the key
+			Thumbnail finished = recheckCache ? cache.get(key) : null;
+			if (finished != null) {
+				inFlight.remove(key, created);
+				created.complete(finished);
+				return finished;
+			}
+			try {
+				executor.execute(() -> {
+					try {
+						created.complete(cache.put(key, render(source, maxWidth, maxHeight, format)));
+					}
+					catch (Throwable ex) {
+						created.completeExceptionally(ex);
+					}
+					finally {
+						inFlight.remove(key, created);
+					}
+				});
+			}
+			catch (RejectedExecutionException ex) {
+				inFlight.remove(key, created);
+				created.completeExceptionally(
+						new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many resize requests"));
+			}
+		}
+		return await(pending);
+	}
+
+	private Thumbnail await(CompletableFuture<Thumbnail> pending) throws IOException {
+		try {
+			return pending.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException ex) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Resize timed out");
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted waiting for a resize", ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof ResponseStatusException) {
+				throw (ResponseStatusException) cause;
+			}
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Decodes only as many source pixels as the target needs: large sources
+	 * are subsampled while they are read, then scaled the rest of the way.
+	 */
+	private byte[] render(Path source, int maxWidth, int maxHeight, String format) throws IOException {
+		BufferedImage image;
+		try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+			Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+			if (readers == null || !readers.hasNext()) {
+				throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Not a supported image");
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				int sourceWidth = reader.getWidth(0);
+				int sourceHeight = reader.getHeight(0);
+				if ((long) sourceWidth * sourceHeight > maxSourcePixels) {
+					throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Image is too large to resize");
+				}
+				double scale = Math.min(1.0, Math.min((double) maxWidth / sourceWidth, (double) maxHeight / sourceHeight));
+				// subsample to no less than twice the target, which keeps the final scaling smooth
+				int subsampling = Math.max(1, (int) (1 / (scale * 2)));
+				ImageReadParam param = reader.getDefaultReadParam();
+				param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+				image = reader.read(0, param);
+				int width = Math.max(1, (int) Math.round(sourceWidth * scale));
+				int height = Math.max(1, (int) Math.round(sourceHeight * scale));
+				image = scale(image, width, height, "png".equals(format));
+			}
+			finally {
+				reader.dispose();
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		if (!ImageIO.write(image, format, out)) {
+			throw new IOException("No image writer for " + format);
+		}
+		return out.toByteArray();
+	}
+
+	private static BufferedImage scale(BufferedImage image, int width, int height, boolean alpha) {
+		if (image.getWidth() == width && image.getHeight() == height) {
+			return image;
+		}
+		BufferedImage scaled = new BufferedImage(width, height,
+				alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = scaled.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.drawImage(image, 0, 0, width, height, null);
+		}
+		finally {
+			graphics.dispose();
+		}
+		return scaled;
+	}
+
+	private int bound(String name, Integer value) {
+		if (value == null) {
+			return maxDimension;
+		}
+		if (value < 1 || value > maxDimension) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					name + " must be between 1 and " + maxDimension);
+		}
+		return value;
+	}
+
+	private static String outputFormat(String fileName) {
+		String extension = StringUtils.getFilenameExtension(fileName);
+		extension = extension == null ? "" : extension.toLowerCase(Locale.ROOT);
+		return "jpg".equals(extension) || "jpeg".equals(extension) ? "jpg" : "png";
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdownNow();
+	}
+}
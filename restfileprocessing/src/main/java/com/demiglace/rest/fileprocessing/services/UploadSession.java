@@ -0,0 +1,229 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.demiglace.rest.fileprocessing.model.UploadStatus;
+
+/**
+ * One chunked upload: a data file sized up front, written at chunk offsets
+ * through a single positional channel, and a journal that appends a line per
+ * completed chunk so the received ranges survive a restart.
+ *
+ * <p>Chunk writes share the read lock and may run in parallel; completing or
+ * aborting the upload takes the write lock.
+ */
+class UploadSession implements Closeable {
+
+	private final String id;
+	private final String fileName;
+	private final long size;
+	private final Path data;
+	private final Path journal;
+	private final FileChannel dataChannel;
+	private final FileChannel journalChannel;
+	private final ReceivedRanges received = new ReceivedRanges();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile long lastActivity = System.currentTimeMillis();
+	private boolean closed;
+
+	private UploadSession(String id, String fileName, long size, Path data, Path journal) throws IOException {
+		this.id = id;
+		this.fileName = fileName;
+		this.size = size;
+		this.data = data;
+		this.journal = journal;
+		this.dataChannel = FileChannel.open(data, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		this.journalChannel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+	}
+
+	static UploadSession create(Path dir, String id, String fileName, long size) throws IOException {
+		UploadSession session = new UploadSession(id, fileName, size, dir.resolve(id + ".part"),
+				dir.resolve(id + ".upload"));
+		try {
+			if (size > 0) {
+				// sizes the file (sparse where the file system allows), so chunks can land in any order
+				session.dataChannel.write(ByteBuffer.allocate(1), size - 1);
+			}
+			session.appendJournal(size + " " + URLEncoder.encode(fileName, StandardCharsets.UTF_8));
+			return session;
+		}
+		catch (IOException ex) {
+			session.close();
+			session.delete();
+			throw ex;
+		}
+	}
+
+	static UploadSession recover(Path journal) throws IOException {
+		String file = journal.getFileName().toString();
+		String id = file.substring(0, file.length() - ".upload".length());
+		Path data = journal.resolveSibling(id + ".part");
+		if (!Files.isRegularFile(data)) {
+			throw new NoSuchFileException(data.toString());
+		}
+		try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.US_ASCII)) {
+			String[] header = reader.readLine().split(" ", 2);
+			UploadSession session = new UploadSession(id, URLDecoder.decode(header[1], StandardCharsets.UTF_8),
+					Long.parseLong(header[0]), data, journal);
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] range = line.split(" ");
+				// a torn last line from a crash only loses that chunk, which the client sends again
+				if (range.length == 2) {
+					session.received.add(Long.parseLong(range[0]), Long.parseLong(range[1]));
+				}
+			}
+			return session;
+		}
+	}
+
+	String getId() {
+		return id;
+	}
+
+	String getFileName() {
+		return fileName;
+	}
+
+	long getSize() {
+		return size;
+	}
+
+	Path getData() {
+		return data;
+	}
+
+	long getLastActivity() {
+		return lastActivity;
+	}
+
+	/**
+	 * Writes {@code length} bytes read from {@code in} at {@code offset}. The
+	 * range is recorded only once every byte of it has been written, so a
+	 * chunk cut short by a dropped connection is simply sent again.
+	 */
+	void write(long offset, long length, InputStream in) throws IOException {
+		lastActivity = System.currentTimeMillis();
+		lock.readLock().lock();
+		try {
+			ensureOpen();
+			ReadableByteChannel source = Channels.newChannel(in);
+			long position = offset;
+			long remaining = length;
+			while (remaining > 0) {
+				long written = dataChannel.transferFrom(source, position, remaining);
+				if (written <= 0) {
+					throw new IOException("Chunk ended after " + (position - offset) + " of " + length + " bytes");
+				}
+				position += written;
+				remaining -= written;
+			}
+			synchronized (received) {
+				appendJournal(offset + " " + (offset + length));
+				received.add(offset, offset + length);
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	UploadStatus status() {
+		synchronized (received) {
+			return new UploadStatus(id, fileName, size, received.total(), received.missing(size));
+		}
+	}
+
+	/**
+	 * Closes the session for further chunks if every byte has arrived. The
+	 * data file is forced to disk first, so it can be moved into place.
+	 */
+	boolean seal() throws IOException {
+		lock.writeLock().lock();
+		try {
+			ensureOpen();
+			synchronized (received) {
+				if (received.total() != size) {
+					return false;
+				}
+			}
+			dataChannel.force(false);
+			close();
+			return true;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * A new, open session over this one's files, for when a sealed session's
+	 * data could not be stored.
+	 */
+	UploadSession reopen() throws IOException {
+		return recover(journal);
+	}
+
+	void abort() throws IOException {
+		lock.writeLock().lock();
+		try {
+			close();
+			delete();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the journal and, if it was not moved away, the data file.
+	 */
+	void delete() throws IOException {
+		Files.deleteIfExists(journal);
+		Files.deleteIfExists(data);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			try {
+				dataChannel.close();
+			}
+			finally {
+				journalChannel.close();
+			}
+		}
+	}
+
+	private synchronized void ensureOpen() {
+		if (closed) {
+			throw new IllegalStateException("Upload " + id + " is closed");
+		}
+	}
+
+	private void appendJournal(String line) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.US_ASCII));
+		while (buffer.hasRemaining()) {
+			journalChannel.write(buffer);
+		}
+	}
+}
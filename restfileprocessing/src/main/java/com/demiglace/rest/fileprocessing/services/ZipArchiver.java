@@ -0,0 +1,143 @@
+package com.demiglace.rest.fileprocessing.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Writes stored files as a ZIP straight to an output stream, one entry at a
+ * time through a fixed-size buffer, so memory use does not depend on the
+ * number or size of the files. Files in already-compressed formats are
+ * STORED rather than deflated: deflating them costs CPU and saves nothing.
+ * A STORED entry's header needs its CRC, which is computed in a first read
+ * of the file; that read is usually served from the page cache.
+ */
+@Service
+public class ZipArchiver {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final FileStorage storage;
+	private final Set<String> storedExtensions;
+	private final int level;
+	private final int maxEntries;
+
+	@Autowired
+	public ZipArchiver(FileStorage storage,
+			@Value("${files.archive.stored-extensions:jpg,jpeg,png,gif,webp,heic,zip,gz,tgz,bz2,xz,zst,7z,rar,jar,docx,xlsx,pptx,pdf,mp3,aac,ogg,mp4,m4v,mov,mkv,webm,avi}") List<String> storedExtensions,
+			@Value("${files.archive.level:6}") int level,
+			@Value("${files.archive.max-entries:1000}") int maxEntries) {
+		this.storage = storage;
+		this.storedExtensions = storedExtensions.stream().map(extension -> extension.trim().toLowerCase(Locale.ROOT))
+				.collect(Collectors.toSet());
+		this.level = level;
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Resolves the files to archive, rejecting the request before anything
+	 * is written if a name is invalid or missing. Repeated names are archived
+	 * once.
+	 */
+	public List<ArchiveEntry> entries(List<String> fileNames) {
+		Set<String> names = new LinkedHashSet<>(fileNames);
+		if (names.isEmpty() || names.size() > maxEntries) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"names must list between 1 and " + maxEntries + " files");
+		}
+		List<ArchiveEntry> entries = new ArrayList<>(names.size());
+		for (String name : names) {
+			Path file = storage.locate(name);
+			if (file == null) {
+				throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No such file: " + name);
+			}
+			entries.add(new ArchiveEntry(name, file));
+		}
+		return entries;
+	}
+
+	public void write(List<ArchiveEntry> entries, OutputStream out) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		ZipOutputStream zip = new ZipOutputStream(out);
+		zip.setLevel(level);
+		for (ArchiveEntry entry : entries) {
+			try (FileChannel channel = FileChannel.open(entry.file, StandardOpenOption.READ)) {
+				BasicFileAttributes attributes = Files.readAttributes(entry.file, BasicFileAttributes.class);
+				ZipEntry zipEntry = new ZipEntry(entry.name);
+				zipEntry.setLastModifiedTime(attributes.lastModifiedTime());
+				if (isCompressed(entry.name)) {
+					zipEntry.setMethod(ZipEntry.STORED);
+					zipEntry.setSize(attributes.size());
+					zipEntry.setCompressedSize(attributes.size());
+					zipEntry.setCrc(crc(channel, buffer));
+				}
+				zip.putNextEntry(zipEntry);
+				copy(channel, buffer, zip);
+				zip.closeEntry();
+			}
+		}
+		zip.finish();
+		zip.flush();
+	}
+
+	private boolean isCompressed(String name) {
+		String extension = StringUtils.getFilenameExtension(name);
+		return extension != null && storedExtensions.contains(extension.toLowerCase(Locale.ROOT));
+	}
+
+	private static long crc(FileChannel channel, ByteBuffer buffer) throws IOException {
+		CRC32 crc = new CRC32();
+		buffer.clear();
+		while (channel.read(buffer) != -1) {
+			buffer.flip();
+			crc.update(buffer);
+			buffer.clear();
+		}
+		channel.position(0);
+		return crc.getValue();
+	}
+
+	private static void copy(FileChannel channel, ByteBuffer buffer, OutputStream out) throws IOException {
+		buffer.clear();
+		while (channel.read(buffer) != -1) {
+			out.write(buffer.array(), 0, buffer.position());
+			buffer.clear();
+		}
+	}
+
+	public static class ArchiveEntry {
+
+		private final String name;
+		private final Path file;
+
+		ArchiveEntry(String name, Path file) {
+			this.name = name;
+			this.file = file;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package com.demiglace.rest.fileprocessing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.demiglace.rest.fileprocessing.model.UploadStatus;
+import com.demiglace.rest.fileprocessing.services.ChunkedUploadService;
+import com.demiglace.rest.fileprocessing.services.FileStorage;
+
+class ChunkedUploadServiceTest {
+
+	private static final int CHUNK = 1000;
+
+	@TempDir
+	Path uploadDir;
+
+	private ChunkedUploadService newService() throws Exception {
+		ChunkedUploadService service = new ChunkedUploadService(new FileStorage(uploadDir.toString()),
+				1_000_000, CHUNK, 60);
+		ReflectionTestUtils.invokeMethod(service, "recover");
+		return service;
+	}
+
+	private static byte[] content(int size) {
+		byte[] data = new byte[size];
+		new Random(42).nextBytes(data);
+		return data;
+	}
+
+	private static void put(ChunkedUploadService service, String id, byte[] data, int offset) throws IOException {
+		int length = Math.min(CHUNK, data.length - offset);
+		service.writeChunk(id, offset, length, new ByteArrayInputStream(data, offset, length));
+	}
+
+	@Test
+	void testParallelOutOfOrderChunks() throws Exception {
+		ChunkedUploadService service = newService();
+		byte[] data = content(10_500);
+		String id = service.create("big.bin", data.length).getId();
+
+		List<Integer> offsets = new ArrayList<>();
+		for (int offset = 0; offset < data.length; offset += CHUNK) {
+			offsets.add(offset);
+		}
+		Collections.shuffle(offsets, new Random(7));
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> writes = new ArrayList<>();
+			for (int offset : offsets) {
+				writes.add(executor.submit(() -> {
+					put(service, id, data, offset);
+					return null;
+				}));
+			}
+			for (Future<?> write : writes) {
+				write.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		assertTrue(service.status(id).isComplete());
+		Path stored = service.complete(id);
+		assertEquals(uploadDir.resolve("big.bin"), stored);
+		assertArrayEquals(data, Files.readAllBytes(stored));
+	}
+
+	@Test
+	void testResumeAfterRestart() throws Exception {
+		ChunkedUploadService service = newService();
+		byte[] data = content(3000);
+		String id = service.create("resume.bin", data.length).getId();
+		put(service, id, data, 0);
+		put(service, id, data, 2000);
+		ReflectionTestUtils.invokeMethod(service, "closeSessions");
+
+		ChunkedUploadService restarted = newService();
+		UploadStatus status = restarted.status(id);
+		assertEquals(2000, status.getReceivedBytes());
+		assertEquals(1, status.getMissing().size());
+		assertEquals(1000, status.getMissing().get(0).getStart());
+		assertEquals(2000, status.getMissing().get(0).getEnd());
+
+		put(restarted, id, data, 1000);
+		assertArrayEquals(data, Files.readAllBytes(restarted.complete(id)));
+	}
+
+	@Test
+	void testCompleteWithGapsIsRejected() throws Exception {
+		ChunkedUploadService service = newService();
+		byte[] data = content(2000);
+		String id = service.create("gap.bin", data.length).getId();
+		put(service, id, data, 0);
+
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.complete(id));
+		assertEquals(HttpStatus.CONFLICT, ex.getStatus());
+		assertFalse(service.status(id).isComplete());
+	}
+
+	@Test
+	void testFailedStoreCanBeRetried() throws Exception {
+		FileStorage failingOnce = new FileStorage(uploadDir.toString()) {
+			private boolean failed;
+
+			@Override
+			public Path store(String fileName, Path file) throws IOException {
+				if (!failed) {
+					failed = true;
+					throw new IOException("disk full");
+				}
+				return super.store(fileName, file);
+			}
+		};
+		ChunkedUploadService service = new ChunkedUploadService(failingOnce, 1_000_000, CHUNK, 60);
+		ReflectionTestUtils.invokeMethod(service, "recover");
+		byte[] data = content(1500);
+		String id = service.create("retry.bin", data.length).getId();
+		put(service, id, data, 0);
+		put(service, id, data, 1000);
+
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.complete(id));
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, ex.getStatus());
+		assertTrue(service.status(id).isComplete());
+		assertArrayEquals(data, Files.readAllBytes(service.complete(id)));
+	}
+
+	@Test
+	void testChunkOutsideUploadIsRejected() throws Exception {
+		ChunkedUploadService service = newService();
+		String id = service.create("small.bin", 10).getId();
+
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+				() -> service.writeChunk(id, 5, 10, new ByteArrayInputStream(new byte[10])));
+		assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, ex.getStatus());
+	}
+
+	@Test
+	void testTruncatedChunkIsNotRecorded() throws Exception {
+		ChunkedUploadService service = newService();
+		String id = service.create("cut.bin", 1000).getId();
+
+		assertThrows(IOException.class,
+				() -> service.writeChunk(id, 0, 1000, new ByteArrayInputStream(new byte[400])));
+		assertEquals(0, service.status(id).getReceivedBytes());
+	}
+}
@@ -0,0 +1,119 @@
+package com.demiglace.rest.fileprocessing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.demiglace.rest.fileprocessing.services.CompressedVariants;
+import com.demiglace.rest.fileprocessing.services.ContentTypeResolver;
+import com.demiglace.rest.fileprocessing.services.FileStorage;
+import com.demiglace.rest.fileprocessing.services.FileStoredEvent;
+
+class CompressedVariantsTest {
+
+	@TempDir
+	Path uploadDir;
+
+	private CompressedVariants variants;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		variants = new CompressedVariants(new FileStorage(uploadDir.toString()), new ContentTypeResolver(),
+				List.of("text/*", "application/json"), 1024, 0.9, 6, 10);
+	}
+
+	private static byte[] csv(int rows) {
+		StringBuilder csv = new StringBuilder("id,name,price\n");
+		for (int i = 0; i < rows; i++) {
+			csv.append(i).append(",product ").append(i).append(",").append(i * 10).append('\n');
+		}
+		return csv.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private Path awaitVariant(String fileName, Path file) throws Exception {
+		for (int i = 0; i < 100; i++) {
+			Path variant = variants.gzip(fileName, file);
+			if (variant != null) {
+				return variant;
+			}
+			Thread.sleep(50);
+		}
+		return null;
+	}
+
+	private static byte[] gunzip(Path variant) throws Exception {
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(variant))) {
+			return in.readAllBytes();
+		}
+	}
+
+	@Test
+	void testVariantIsBuiltOnStore() throws Exception {
+		byte[] data = csv(1000);
+		Path file = Files.write(uploadDir.resolve("products.csv"), data);
+		variants.onFileStored(new FileStoredEvent(this, "products.csv", file));
+
+		Path variant = awaitVariant("products.csv", file);
+
+		assertNotNull(variant);
+		assertTrue(Files.size(variant) < data.length);
+		assertArrayEquals(data, gunzip(variant));
+	}
+
+	@Test
+	void testChangedFileInvalidatesVariant() throws Exception {
+		Path file = Files.write(uploadDir.resolve("products.csv"), csv(1000));
+		Path first = awaitVariant("products.csv", file);
+
+		byte[] changed = csv(2000);
+		Files.write(file, changed);
+		Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+		assertNull(variants.gzip("products.csv", file));
+		Path second = awaitVariant("products.csv", file);
+		assertNotEquals(first, second);
+		assertArrayEquals(changed, gunzip(second));
+		assertFalse(Files.exists(first));
+	}
+
+	@Test
+	void testSkipsIncompressibleAndSmallFiles() throws Exception {
+		byte[] noise = new byte[8192];
+		new Random(1).nextBytes(noise);
+		Path random = Files.write(uploadDir.resolve("noise.txt"), noise);
+		Path small = Files.write(uploadDir.resolve("small.json"), "{}".getBytes(StandardCharsets.US_ASCII));
+		Path image = Files.write(uploadDir.resolve("photo.jpg"), csv(1000));
+
+		assertNull(awaitVariant("noise.txt", random));
+		assertNull(variants.gzip("small.json", small));
+		assertNull(variants.gzip("photo.jpg", image));
+		assertFalse(variants.isCompressible("photo.jpg"));
+	}
+
+	@Test
+	void testAcceptEncodingNegotiation() {
+		assertTrue(CompressedVariants.acceptsGzip("gzip, deflate, br"));
+		assertTrue(CompressedVariants.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+		assertTrue(CompressedVariants.acceptsGzip("*"));
+		assertFalse(CompressedVariants.acceptsGzip("gzip;q=0, *"));
+		assertFalse(CompressedVariants.acceptsGzip("*;q=0"));
+		assertFalse(CompressedVariants.acceptsGzip("identity"));
+		assertFalse(CompressedVariants.acceptsGzip(null));
+	}
+}
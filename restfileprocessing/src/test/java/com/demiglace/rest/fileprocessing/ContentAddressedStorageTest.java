@@ -0,0 +1,99 @@
+package com.demiglace.rest.fileprocessing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.demiglace.rest.fileprocessing.services.FileStorage;
+
+class ContentAddressedStorageTest {
+
+	// SHA-256 of "hello"
+	private static final String HELLO_SHA256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+	@TempDir
+	Path uploadDir;
+
+	private static ByteArrayInputStream hello() {
+		return new ByteArrayInputStream("hello".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private long blobCount() throws Exception {
+		try (Stream<Path> files = Files.walk(uploadDir.resolve(".blobs"))) {
+			return files.filter(Files::isRegularFile).count();
+		}
+	}
+
+	@Test
+	void testIdenticalUploadsShareOneBlob() throws Exception {
+		FileStorage storage = new FileStorage(uploadDir.toString(), true);
+
+		Path first = storage.store("a.txt", hello());
+		Path second = storage.store("b.txt", hello());
+
+		assertEquals(first, second);
+		assertEquals(uploadDir.resolve(".blobs/2c/f2/" + HELLO_SHA256), first);
+		assertEquals(1, blobCount());
+		assertArrayEquals("hello".getBytes(StandardCharsets.US_ASCII), Files.readAllBytes(storage.locate("a.txt")));
+		assertFalse(Files.exists(uploadDir.resolve("a.txt")));
+	}
+
+	@Test
+	void testSameNameIsRepointed() throws Exception {
+		FileStorage storage = new FileStorage(uploadDir.toString(), true);
+
+		storage.store("a.txt", hello());
+		storage.store("a.txt", new ByteArrayInputStream("bye".getBytes(StandardCharsets.US_ASCII)));
+
+		assertArrayEquals("bye".getBytes(StandardCharsets.US_ASCII), Files.readAllBytes(storage.locate("a.txt")));
+	}
+
+	@Test
+	void testLinkToStoredContent() throws Exception {
+		FileStorage storage = new FileStorage(uploadDir.toString(), true);
+		storage.store("a.txt", hello());
+
+		assertTrue(storage.link("copy.txt", HELLO_SHA256.toUpperCase()));
+		assertEquals(storage.locate("a.txt"), storage.locate("copy.txt"));
+		assertFalse(storage.link("other.txt", HELLO_SHA256.replace('2', '3')));
+		assertNull(storage.locate("other.txt"));
+	}
+
+	@Test
+	void testIndexSurvivesRestart() throws Exception {
+		FileStorage storage = new FileStorage(uploadDir.toString(), true);
+		storage.store("a.txt", hello());
+		storage.store("a.txt", hello());
+		storage.store("b c.txt", hello());
+		ReflectionTestUtils.invokeMethod(storage, "close");
+
+		FileStorage reopened = new FileStorage(uploadDir.toString(), true);
+		assertEquals(uploadDir.resolve(".blobs/2c/f2/" + HELLO_SHA256), reopened.locate("a.txt"));
+		assertEquals(uploadDir.resolve(".blobs/2c/f2/" + HELLO_SHA256), reopened.locate("b c.txt"));
+		// compacted to one line per name
+		assertEquals(2, Files.readAllLines(uploadDir.resolve(".index/names.log")).size());
+	}
+
+	@Test
+	void testStagedFileIsHashedIntoPlace() throws Exception {
+		FileStorage storage = new FileStorage(uploadDir.toString(), true);
+		Path staged = Files.write(uploadDir.resolve(".staged"), "hello".getBytes(StandardCharsets.US_ASCII));
+
+		Path stored = storage.store("staged.txt", staged);
+
+		assertEquals(uploadDir.resolve(".blobs/2c/f2/" + HELLO_SHA256), stored);
+		assertFalse(Files.exists(staged));
+	}
+}
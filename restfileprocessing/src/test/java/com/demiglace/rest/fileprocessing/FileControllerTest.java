@@ -0,0 +1,157 @@
+package com.demiglace.rest.fileprocessing;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.demiglace.rest.fileprocessing.controllers.FileController;
+import com.demiglace.rest.fileprocessing.services.CompressedVariants;
+import com.demiglace.rest.fileprocessing.services.ContentTypeResolver;
+import com.demiglace.rest.fileprocessing.services.FileSender;
+import com.demiglace.rest.fileprocessing.services.FileStorage;
+import com.demiglace.rest.fileprocessing.services.ThumbnailService;
+import com.demiglace.rest.fileprocessing.services.ZipArchiver;
+
+@WebMvcTest(FileController.class)
+@Import({ FileStorage.class, ContentTypeResolver.class, FileSender.class, ThumbnailService.class,
+		CompressedVariants.class, ZipArchiver.class })
+class FileControllerTest {
+
+	private static final String CONTENT = "0123456789abcdefghij";
+	private static final byte[] PHOTO = { (byte) 0xff, (byte) 0xd8, 1, 2, 3, 4, (byte) 0xff, (byte) 0xd9 };
+
+	@TempDir
+	static Path uploadDir;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@DynamicPropertySource
+	static void uploadDir(DynamicPropertyRegistry registry) {
+		registry.add("uploadDir", () -> uploadDir.toString());
+	}
+
+	@BeforeAll
+	static void createFile() throws IOException {
+		Files.write(uploadDir.resolve("data.txt"), CONTENT.getBytes(StandardCharsets.US_ASCII));
+		Files.write(uploadDir.resolve("photo.jpg"), PHOTO);
+	}
+
+	@Test
+	void testFullDownload() throws Exception {
+		mockMvc.perform(get("/download/data.txt"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+			.andExpect(header().string(HttpHeaders.CONTENT_TYPE, startsWith("text/plain")))
+			.andExpect(content().string(CONTENT));
+	}
+
+	@Test
+	void testSingleRange() throws Exception {
+		mockMvc.perform(get("/download/data.txt").header(HttpHeaders.RANGE, "bytes=5-9"))
+			.andExpect(status().isPartialContent())
+			.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/20"))
+			.andExpect(content().string("56789"));
+	}
+
+	@Test
+	void testSuffixRange() throws Exception {
+		mockMvc.perform(get("/download/data.txt").header(HttpHeaders.RANGE, "bytes=-3"))
+			.andExpect(status().isPartialContent())
+			.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 17-19/20"))
+			.andExpect(content().string("hij"));
+	}
+
+	@Test
+	void testMultipleRanges() throws Exception {
+		String body = mockMvc.perform(get("/download/data.txt").header(HttpHeaders.RANGE, "bytes=0-1,10-11"))
+			.andExpect(status().isPartialContent())
+			.andExpect(header().string(HttpHeaders.CONTENT_TYPE, startsWith("multipart/byteranges; boundary=")))
+			.andReturn().getResponse().getContentAsString();
+
+		assertTrue(body.contains("Content-Range: bytes 0-1/20\r\n\r\n01\r\n"));
+		assertTrue(body.contains("Content-Range: bytes 10-11/20\r\n\r\nab\r\n"));
+	}
+
+	@Test
+	void testUnsatisfiableRange() throws Exception {
+		mockMvc.perform(get("/download/data.txt").header(HttpHeaders.RANGE, "bytes=50-60"))
+			.andExpect(status().isRequestedRangeNotSatisfiable())
+			.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+	}
+
+	@Test
+	void testUnsatisfiableRangeAmongSeveral() throws Exception {
+		mockMvc.perform(get("/download/data.txt").header(HttpHeaders.RANGE, "bytes=0-1,50-60"))
+			.andExpect(status().isRequestedRangeNotSatisfiable())
+			.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+	}
+
+	@Test
+	void testStaleIfRangeServesWholeFile() throws Exception {
+		mockMvc.perform(get("/download/data.txt")
+				.header(HttpHeaders.RANGE, "bytes=0-1")
+				.header(HttpHeaders.IF_RANGE, "Thu, 01 Jan 1970 00:00:00 GMT"))
+			.andExpect(status().isOk())
+			.andExpect(content().string(CONTENT));
+	}
+
+	@Test
+	void testMissingFile() throws Exception {
+		mockMvc.perform(get("/download/missing.txt")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void testArchiveDownload() throws Exception {
+		byte[] zip = mockMvc.perform(get("/download/archive").param("names", "data.txt,photo.jpg,data.txt"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/zip"))
+			.andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, startsWith("attachment")))
+			.andReturn().getResponse().getContentAsByteArray();
+
+		try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+			ZipEntry text = in.getNextEntry();
+			assertEquals("data.txt", text.getName());
+			assertEquals(ZipEntry.DEFLATED, text.getMethod());
+			assertEquals(CONTENT, new String(in.readAllBytes(), StandardCharsets.US_ASCII));
+
+			ZipEntry photo = in.getNextEntry();
+			assertEquals("photo.jpg", photo.getName());
+			assertEquals(ZipEntry.STORED, photo.getMethod());
+			assertArrayEquals(PHOTO, in.readAllBytes());
+
+			assertNull(in.getNextEntry());
+		}
+	}
+
+	@Test
+	void testArchiveWithMissingFile() throws Exception {
+		mockMvc.perform(get("/download/archive").param("names", "data.txt", "missing.txt"))
+			.andExpect(status().isNotFound());
+	}
+}
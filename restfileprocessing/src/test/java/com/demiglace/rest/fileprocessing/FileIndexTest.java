@@ -0,0 +1,130 @@
+package com.demiglace.rest.fileprocessing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.demiglace.rest.fileprocessing.model.FileMetadata;
+import com.demiglace.rest.fileprocessing.model.FilePage;
+import com.demiglace.rest.fileprocessing.services.ContentTypeResolver;
+import com.demiglace.rest.fileprocessing.services.FileIndex;
+import com.demiglace.rest.fileprocessing.services.FileStorage;
+
+class FileIndexTest {
+
+	// SHA-256 of "hello"
+	private static final String HELLO_SHA256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+	@TempDir
+	Path uploadDir;
+
+	private FileIndex index;
+
+	@AfterEach
+	void tearDown() throws Exception {
+		if (index != null) {
+			index.stop();
+		}
+	}
+
+	private FileIndex start(FileStorage storage) throws Exception {
+		index = new FileIndex(storage, new ContentTypeResolver(), 100);
+		index.start();
+		return index;
+	}
+
+	private void write(String name) throws Exception {
+		Files.write(uploadDir.resolve(name), "hello".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		for (int i = 0; i < 200 && !condition.getAsBoolean(); i++) {
+			Thread.sleep(50);
+		}
+		assertTrue(condition.getAsBoolean());
+	}
+
+	private static List<String> names(FilePage page) {
+		return page.getFiles().stream().map(FileMetadata::getName).collect(Collectors.toList());
+	}
+
+	@Test
+	void testPrefixListingWithPaging() throws Exception {
+		for (String name : List.of("report-1.csv", "report-2.csv", "report-3.csv", "photo.jpg", "readme.txt")) {
+			write(name);
+		}
+		Files.createDirectories(uploadDir.resolve(".hidden"));
+		start(new FileStorage(uploadDir.toString()));
+
+		assertEquals(5, index.size());
+		FilePage first = index.list("report-", null, 2);
+		assertEquals(List.of("report-1.csv", "report-2.csv"), names(first));
+		assertEquals("report-2.csv", first.getNext());
+
+		FilePage second = index.list("report-", first.getNext(), 2);
+		assertEquals(List.of("report-3.csv"), names(second));
+		assertNull(second.getNext());
+
+		FileMetadata photo = index.get("photo.jpg");
+		assertEquals(5, photo.getSize());
+		assertEquals("image/jpeg", photo.getContentType());
+	}
+
+	@Test
+	void testAfterOutsideThePrefixRange() throws Exception {
+		for (String name : List.of("report-1.csv", "report-2.csv", "photo.jpg", "zebra.txt")) {
+			write(name);
+		}
+		start(new FileStorage(uploadDir.toString()));
+
+		assertEquals(List.of("report-1.csv", "report-2.csv"), names(index.list("report-", "photo.jpg", 10)));
+		assertEquals(List.of(), names(index.list("report-", "zebra.txt", 10)));
+		assertNull(index.list("report-", "zebra.txt", 10).getNext());
+	}
+
+	@Test
+	void testTracksChangesMadeBehindTheService() throws Exception {
+		start(new FileStorage(uploadDir.toString()));
+
+		write("late.txt");
+		await(() -> index.get("late.txt") != null);
+		await(() -> HELLO_SHA256.equals(index.get("late.txt").getSha256()));
+
+		Files.delete(uploadDir.resolve("late.txt"));
+		await(() -> index.get("late.txt") == null);
+	}
+
+	@Test
+	void testContentAddressedFilesAreIndexedWithHashes() throws Exception {
+		FileStorage storage = new FileStorage(uploadDir.toString(), true);
+		storage.store("a.txt", new ByteArrayInputStream("hello".getBytes(StandardCharsets.US_ASCII)));
+		start(storage);
+
+		FileMetadata metadata = index.get("a.txt");
+		assertNotNull(metadata);
+		assertEquals(HELLO_SHA256, metadata.getSha256());
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void testRejectsOversizedPages() throws Exception {
+		start(new FileStorage(uploadDir.toString()));
+
+		assertThrows(ResponseStatusException.class, () -> index.list(null, null, 1000));
+	}
+}
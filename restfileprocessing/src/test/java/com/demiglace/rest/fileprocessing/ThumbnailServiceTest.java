@@ -0,0 +1,171 @@
+package com.demiglace.rest.fileprocessing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.demiglace.rest.fileprocessing.services.FileStorage;
+import com.demiglace.rest.fileprocessing.services.Thumbnail;
+import com.demiglace.rest.fileprocessing.services.ThumbnailService;
+
+class ThumbnailServiceTest {
+
+	@TempDir
+	Path uploadDir;
+
+	private Path image;
+	private ThumbnailService thumbnails;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		image = uploadDir.resolve("wide.png");
+		ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "png", image.toFile());
+		thumbnails = new ThumbnailService(new FileStorage(uploadDir.toString()), 1 << 20, 1 << 24, 2, 16, 1000,
+				10_000_000, 10_000);
+	}
+
+	private static BufferedImage read(Thumbnail thumbnail) throws Exception {
+		byte[] data = thumbnail.getData() != null ? thumbnail.getData() : Files.readAllBytes(thumbnail.getFile());
+		return ImageIO.read(new ByteArrayInputStream(data));
+	}
+
+	private long diskTierSize() throws Exception {
+		try (Stream<Path> files = Files.list(uploadDir.resolve(".thumbnails"))) {
+			return files.count();
+		}
+	}
+
+	@Test
+	void testFitsWithinBoundsKeepingAspectRatio() throws Exception {
+		Thumbnail thumbnail = thumbnails.thumbnail("wide.png", image, 100, 100);
+
+		BufferedImage resized = read(thumbnail);
+		assertEquals(100, resized.getWidth());
+		assertEquals(50, resized.getHeight());
+		assertEquals(MediaType.IMAGE_PNG, thumbnail.getContentType());
+	}
+
+	@Test
+	void testSingleDimension() throws Exception {
+		BufferedImage resized = read(thumbnails.thumbnail("wide.png", image, null, 20));
+
+		assertEquals(40, resized.getWidth());
+		assertEquals(20, resized.getHeight());
+	}
+
+	@Test
+	void testNeverUpscales() throws Exception {
+		BufferedImage resized = read(thumbnails.thumbnail("wide.png", image, 800, null));
+
+		assertEquals(400, resized.getWidth());
+	}
+
+	@Test
+	void testConcurrentRequestsShareOneResize() throws Exception {
+		ThreadPoolExecutor pool = (ThreadPoolExecutor) ReflectionTestUtils.getField(thumbnails, "executor");
+		CountDownLatch release = new CountDownLatch(1);
+		// occupy both resize threads so every request arrives while the resize is still queued
+		for (int i = 0; i < 2; i++) {
+			pool.execute(() -> {
+				try {
+					release.await();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Thumbnail>> results = new ArrayList<>();
+			CountDownLatch arrived = new CountDownLatch(8);
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> {
+					arrived.countDown();
+					return thumbnails.thumbnail("wide.png", image, 64, 64);
+				}));
+			}
+			assertTrue(arrived.await(5, TimeUnit.SECONDS));
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (pool.getQueue().isEmpty() && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(1, pool.getQueue().size());
+			release.countDown();
+			for (Future<Thumbnail> result : results) {
+				assertNotNull(result.get());
+			}
+		}
+		finally {
+			release.countDown();
+			executor.shutdown();
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+		// the two blocking tasks plus a single resize
+		assertEquals(3, pool.getCompletedTaskCount());
+		assertEquals(1, diskTierSize());
+	}
+
+	@Test
+	void testResizeRecoversAnEvictedFile() throws Exception {
+		Thumbnail cached = thumbnails.thumbnail("wide.png", image, 64, 64);
+		Files.delete(cached.getFile());
+
+		Thumbnail resized = thumbnails.resize("wide.png", image, 64, 64);
+		assertNotNull(resized.getData());
+		assertEquals(32, read(resized).getHeight());
+	}
+
+	@Test
+	void testChangedSourceGetsNewVariant() throws Exception {
+		thumbnails.thumbnail("wide.png", image, 64, 64);
+		ImageIO.write(new BufferedImage(100, 300, BufferedImage.TYPE_INT_RGB), "png", image.toFile());
+		Files.setLastModifiedTime(image, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+		BufferedImage resized = read(thumbnails.thumbnail("wide.png", image, 64, 64));
+		assertEquals(64, resized.getHeight());
+	}
+
+	@Test
+	void testRejectsOversizedDimensions() {
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+				() -> thumbnails.thumbnail("wide.png", image, 5000, null));
+		assertEquals(HttpStatus.BAD_REQUEST, ex.getStatus());
+	}
+
+	@Test
+	void testRejectsNonImages() throws Exception {
+		Path text = Files.writeString(uploadDir.resolve("notes.txt"), "not an image");
+
+		ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+				() -> thumbnails.thumbnail("notes.txt", text, 10, 10));
+		assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, ex.getStatus());
+	}
+}
@@ -0,0 +1,75 @@
+package com.demiglace.springboot.rsocket.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.rsocket.loadbalance.LoadbalanceTarget;
+import io.rsocket.transport.netty.client.TcpClientTransport;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * The patient servers the client balances over, given as {@code host:port}.
+ * The list can be replaced at runtime; the connection pool keeps the
+ * connections of servers that stay in the list and closes the others.
+ */
+@Component
+public class PatientServerTargets {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PatientServerTargets.class);
+
+	private final Sinks.Many<List<LoadbalanceTarget>> targets = Sinks.many().replay().latest();
+	private volatile List<String> servers = List.of();
+
+	public PatientServerTargets(@Value("${patient.servers:localhost:7000}") List<String> servers) {
+		update(servers);
+	}
+
+	public List<String> getServers() {
+		return servers;
+	}
+
+	public synchronized void update(List<String> servers) {
+		Set<String> unique = new LinkedHashSet<>();
+		List<LoadbalanceTarget> updated = new ArrayList<>();
+		for (String server : servers) {
+			String address = server.trim();
+			if (unique.add(address)) {
+				updated.add(target(address));
+			}
+		}
+		if (updated.isEmpty()) {
+			throw new IllegalArgumentException("At least one patient server is required");
+		}
+		this.servers = List.copyOf(unique);
+		LOGGER.info("Patient servers: {}", this.servers);
+		targets.emitNext(updated, Sinks.EmitFailureHandler.FAIL_FAST);
+	}
+
+	public Flux<List<LoadbalanceTarget>> targets() {
+		return targets.asFlux();
+	}
+
+	private static LoadbalanceTarget target(String address) {
+		int colon = address.lastIndexOf(':');
+		if (colon <= 0 || colon == address.length() - 1) {
+			throw new IllegalArgumentException("Expected host:port but got " + address);
+		}
+		String host = address.substring(0, colon);
+		int port;
+		try {
+			port = Integer.parseInt(address.substring(colon + 1));
+		}
+		catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("Expected host:port but got " + address, ex);
+		}
+		return LoadbalanceTarget.from(address, TcpClientTransport.create(host, port));
+	}
+}
@@ -0,0 +1,53 @@
+package com.demiglace.springboot.rsocket.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.rsocket.RSocketRequester;
+
+import io.rsocket.loadbalance.LoadbalanceStrategy;
+import io.rsocket.loadbalance.RoundRobinLoadbalanceStrategy;
+import io.rsocket.loadbalance.WeightedLoadbalanceStrategy;
+import reactor.util.retry.Retry;
+
+@Configuration
+public class RSocketClientConfig {
+
+	@Value("${patient.loadbalance.strategy:weighted}")
+	private String strategy;
+
+	@Value("${patient.reconnect.min-backoff-millis:100}")
+	private long minBackoffMillis;
+
+	@Value("${patient.reconnect.max-backoff-millis:10000}")
+	private long maxBackoffMillis;
+
+	/**
+	 * A requester over a pool of one connection per patient server. The
+	 * weighted strategy sends each request to the server with the fewest
+	 * outstanding requests relative to its recent latency; round-robin is
+	 * there for servers known to be identical. Connections that fail are
+	 * re-established with exponential backoff.
+	 */
+	@Bean
+	public RSocketRequester rSocketRequester(RSocketRequester.Builder builder, PatientServerTargets targets) {
+		return builder
+				.rsocketConnector(connector -> connector.reconnect(
+						Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(minBackoffMillis))
+								.maxBackoff(Duration.ofMillis(maxBackoffMillis))))
+				.transports(targets.targets(), loadbalanceStrategy());
+	}
+
+	private LoadbalanceStrategy loadbalanceStrategy() {
+		switch (strategy) {
+		case "weighted":
+			return WeightedLoadbalanceStrategy.create();
+		case "round-robin":
+			return new RoundRobinLoadbalanceStrategy();
+		default:
+			throw new IllegalArgumentException("Unknown patient.loadbalance.strategy: " + strategy);
+		}
+	}
+}
@@ -1,17 +1,24 @@
 package com.demiglace.springboot.rsocket.controllers;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.rsocket.RSocketRequester;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.demiglace.springboot.rsocket.config.PatientServerTargets;
 import com.demiglace.springboot.rsocket.model.Claim;
+import com.demiglace.springboot.rsocket.model.ClaimStreamRequest;
 import com.demiglace.springboot.rsocket.model.ClinicalData;
 import com.demiglace.springboot.rsocket.model.Patient;
 
@@ -23,8 +30,12 @@ public class RSocketPatientClientController {
 	private final RSocketRequester rSocketRequester;
 	Logger logger = LoggerFactory.getLogger(RSocketPatientClientController.class);
 	
-	public void RSocketPatientClienController(@Autowired RSocketRequester.Builder builder) {
-		this.rSocketRequester = builder.tcp("localhost", 7000);
+	private final PatientServerTargets targets;
+	
+	public RSocketPatientClientController(@Autowired RSocketRequester rSocketRequester,
+			@Autowired PatientServerTargets targets) {
+		this.rSocketRequester = rSocketRequester;
+		this.targets = targets;
 	}
 	
 	@GetMapping("/request-response")
@@ -40,10 +51,41 @@ public class RSocketPatientClientController {
 	}
 	
 	@GetMapping("/request-stream")
-	public ResponseEntity<Flux<Claim>> requestStream() {
-		Flux<Claim> data = rSocketRequester.route("claim-stream").retrieveFlux(Claim.class);
+	public ResponseEntity<Flux<Claim>> requestStream(ClaimStreamRequest request) {
+		Flux<Claim> data = rSocketRequester.route("claim-stream").data(request).retrieveFlux(Claim.class);
 		return ResponseEntity.ok()
 				.contentType(MediaType.TEXT_EVENT_STREAM)
 				.body(data);
 	}
+	
+	/**
+	 * Looks up the clinical data of many patients over one channel. Patients
+	 * are sent as the server asks for them, and results are streamed back as
+	 * they arrive, matched to their patients by correlation id.
+	 */
+	@PostMapping("/request-channel")
+	public ResponseEntity<Flux<ClinicalData>> requestChannel(@RequestBody Flux<Patient> patients) {
+		Flux<ClinicalData> data = rSocketRequester.route("patient-data-channel")
+				.data(patients, Patient.class)
+				.retrieveFlux(ClinicalData.class);
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.body(data);
+	}
+	
+	@GetMapping("/servers")
+	public List<String> servers() {
+		return targets.getServers();
+	}
+	
+	@PutMapping("/servers")
+	public List<String> updateServers(@RequestBody List<String> servers) {
+		try {
+			targets.update(servers);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+		}
+		return targets.getServers();
+	}
 }
@@ -1,14 +1,26 @@
 package com.demiglace.springboot.rsocket.model;
 
 public class Claim {
+	private long offset;
 	private float amount;
 	private String service;
 
+	public Claim() {
+	}
+
 	public Claim(float amount, String service) {
 		this.amount = amount;
 		this.service = service;
 	}
 
+	public long getOffset() {
+		return offset;
+	}
+
+	public void setOffset(long offset) {
+		this.offset = offset;
+	}
+
 	public float getAmount() {
 		return amount;
 	}
@@ -27,6 +39,6 @@ public class Claim {
 
 	@Override
 	public String toString() {
-		return "Claim [amount=" + amount + ", service=" + service + "]";
+		return "Claim [offset=" + offset + ", amount=" + amount + ", service=" + service + "]";
 	}
 }
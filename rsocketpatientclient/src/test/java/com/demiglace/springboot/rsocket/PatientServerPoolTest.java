@@ -0,0 +1,129 @@
+package com.demiglace.springboot.rsocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+
+import com.demiglace.springboot.rsocket.config.PatientServerTargets;
+import com.demiglace.springboot.rsocket.model.ClinicalData;
+import com.demiglace.springboot.rsocket.model.Patient;
+
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import reactor.core.publisher.Mono;
+
+@SpringBootTest(properties = "patient.loadbalance.strategy=round-robin")
+class PatientServerPoolTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	@Autowired
+	RSocketRequester requester;
+
+	@Autowired
+	PatientServerTargets targets;
+
+	@Autowired
+	RSocketStrategies strategies;
+
+	private final List<CloseableChannel> servers = new ArrayList<>();
+	private final List<PatientServerStub> stubs = new ArrayList<>();
+
+	/**
+	 * Stands in for the get-patient-data route of rsocketpatientserver and
+	 * counts the requests it receives.
+	 */
+	static class PatientServerStub {
+
+		final int id;
+		final AtomicInteger requests = new AtomicInteger();
+
+		PatientServerStub(int id) {
+			this.id = id;
+		}
+
+		@MessageMapping("get-patient-data")
+		Mono<ClinicalData> patientData(Patient patient) {
+			requests.incrementAndGet();
+			return Mono.just(new ClinicalData(id, "80/120"));
+		}
+	}
+
+	@BeforeEach
+	void startServers() {
+		for (int id = 0; id < 3; id++) {
+			PatientServerStub stub = new PatientServerStub(id);
+			RSocketMessageHandler handler = new RSocketMessageHandler();
+			handler.setRSocketStrategies(strategies);
+			handler.setHandlers(List.of(stub));
+			handler.afterPropertiesSet();
+			servers.add(RSocketServer.create(handler.responder())
+					.bind(TcpServerTransport.create("localhost", 0))
+					.block(TIMEOUT));
+			stubs.add(stub);
+		}
+	}
+
+	@AfterEach
+	void stopServers() {
+		servers.forEach(CloseableChannel::dispose);
+	}
+
+	private List<String> addresses(List<CloseableChannel> channels) {
+		return channels.stream().map(channel -> "localhost:" + channel.address().getPort())
+				.collect(Collectors.toList());
+	}
+
+	private ClinicalData request() {
+		return requester.route("get-patient-data")
+				.data(new Patient("Juan", "Dela Cruz", "123"))
+				.retrieveMono(ClinicalData.class)
+				.block(TIMEOUT);
+	}
+
+	@Test
+	void testRequestsAreSpreadOverAllServers() {
+		targets.update(addresses(servers));
+
+		for (int i = 0; i < 30; i++) {
+			request();
+		}
+
+		for (PatientServerStub stub : stubs) {
+			assertTrue(stub.requests.get() > 0, "server " + stub.id + " received no requests");
+		}
+	}
+
+	@Test
+	void testLiveTargetUpdate() {
+		targets.update(addresses(servers));
+		for (int i = 0; i < 6; i++) {
+			request();
+		}
+
+		targets.update(addresses(servers.subList(1, 2)));
+		int before = stubs.get(0).requests.get() + stubs.get(2).requests.get();
+		for (int i = 0; i < 10; i++) {
+			assertEquals(1, request().getHeartRate());
+		}
+
+		assertEquals(before, stubs.get(0).requests.get() + stubs.get(2).requests.get());
+		assertEquals(List.of("localhost:" + servers.get(1).address().getPort()), targets.getServers());
+	}
+}
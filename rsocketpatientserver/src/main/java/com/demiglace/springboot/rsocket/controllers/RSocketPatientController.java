@@ -1,24 +1,57 @@
 package com.demiglace.springboot.rsocket.controllers;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import com.demiglace.springboot.rsocket.model.Claim;
+import com.demiglace.springboot.rsocket.model.ClaimStreamRequest;
 import com.demiglace.springboot.rsocket.model.ClinicalData;
 import com.demiglace.springboot.rsocket.model.Patient;
+import com.demiglace.springboot.rsocket.repos.ClaimStore;
+import com.demiglace.springboot.rsocket.repos.ClaimStore.ClaimPage;
+import com.demiglace.springboot.rsocket.repos.ClinicalDataStore;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Controller
 public class RSocketPatientController {
 	Logger logger = LoggerFactory.getLogger(RSocketPatientController.class);
 
+	private final ClaimStore claimStore;
+	private final int claimPageSize;
+	private final ClinicalDataStore clinicalDataStore;
+	private final int batchSize;
+	private final Duration batchMaxWait;
+	private final int batchConcurrency;
+
+	public RSocketPatientController(@Autowired ClaimStore claimStore,
+			@Value("${claims.stream.page-size:256}") int claimPageSize,
+			@Autowired ClinicalDataStore clinicalDataStore,
+			@Value("${patients.channel.batch-size:100}") int batchSize,
+			@Value("${patients.channel.batch-max-wait-millis:50}") long batchMaxWaitMillis,
+			@Value("${patients.channel.batch-concurrency:4}") int batchConcurrency) {
+		this.claimStore = claimStore;
+		this.claimPageSize = claimPageSize;
+		this.clinicalDataStore = clinicalDataStore;
+		this.batchSize = batchSize;
+		this.batchMaxWait = Duration.ofMillis(batchMaxWaitMillis);
+		this.batchConcurrency = batchConcurrency;
+	}
+
 	@MessageMapping("get-patient-data")
 	public Mono<ClinicalData> requestResponse(@RequestBody Patient patient) {
 		logger.info("Received Patient: " + patient);
@@ -32,11 +65,87 @@ public class RSocketPatientController {
 		return Mono.empty().then();
 	}
 	
+	/**
+	 * Streams the claims matching the request, starting at its offset. Pages
+	 * are read from the store only as the requester asks for more: a page is
+	 * read when the previous one has been emitted and demand remains, so at
+	 * most two pages per stream are held in memory and a slow requester slows
+	 * the reads rather than building a backlog. Reads run on the bounded
+	 * elastic scheduler, off the transport's event loop.
+	 */
 	@MessageMapping("claim-stream")
-	public Flux<Claim> requestStream() {
-		return Flux.just(new Claim(1000f, "MRI"), 
-				new Claim(2000f, "Surgery"), 
-				new Claim(500f, "XRay"))
-				.delayElements(Duration.ofSeconds(2));
+	public Flux<Claim> requestStream(@Payload(required = false) ClaimStreamRequest request) {
+		ClaimStreamRequest streamRequest = request != null ? request : new ClaimStreamRequest();
+		if (streamRequest.getFromOffset() < 0) {
+			return Flux.error(new IllegalArgumentException("fromOffset must not be negative"));
+		}
+		logger.info("Streaming claims for " + streamRequest);
+		return Flux.<ClaimPage, Long>generate(streamRequest::getFromOffset, (offset, sink) -> {
+			if (offset < 0) {
+				sink.complete();
+				return offset;
+			}
+			ClaimPage page = claimStore.read(offset, claimPageSize, streamRequest::matches);
+			sink.next(page);
+			return page.getNextOffset();
+		})
+				.subscribeOn(Schedulers.boundedElastic())
+				.concatMapIterable(ClaimPage::getClaims, 1);
+	}
+
+	/**
+	 * Answers a stream of patients with their clinical data. Patients are
+	 * looked up in batches of up to {@code patients.channel.batch-size}, with
+	 * at most {@code patients.channel.batch-concurrency} batches in flight, so
+	 * results may come back out of order; each carries the correlation id of
+	 * its patient, or the patient's position in the channel if it had none.
+	 * Patients are only requested from the channel as batches complete.
+	 */
+	@MessageMapping("patient-data-channel")
+	public Flux<ClinicalData> requestChannel(Flux<Patient> patients) {
+		return microBatches(patients.index((index, patient) -> {
+			if (patient.getCorrelationId() == null) {
+				patient.setCorrelationId(String.valueOf(index));
+			}
+			return patient;
+		}))
+				.flatMap(batch -> Mono.fromCallable(() -> lookup(batch)).subscribeOn(Schedulers.boundedElastic()),
+						batchConcurrency)
+				.flatMapIterable(Function.identity(), 1);
+	}
+
+	private List<ClinicalData> lookup(List<Patient> batch) {
+		List<ClinicalData> data = clinicalDataStore.findByPatients(batch);
+		for (int i = 0; i < batch.size(); i++) {
+			data.get(i).setCorrelationId(batch.get(i).getCorrelationId());
+		}
+		return data;
+	}
+
+	/**
+	 * Groups patients into batches of up to {@code batchSize}, closing a
+	 * partial batch once {@code batchMaxWait} passes so a slow channel is
+	 * still answered promptly. Unlike {@code bufferTimeout}, this respects
+	 * backpressure: a flush with no demand downstream is dropped and the batch
+	 * is closed by the next one, rather than failing the channel.
+	 */
+	private Flux<List<Patient>> microBatches(Flux<Patient> patients) {
+		return patients.publish(source -> Flux.merge(source.map(Optional::of),
+				Flux.interval(batchMaxWait)
+						.onBackpressureDrop()
+						.<Optional<Patient>>map(tick -> Optional.empty())
+						.takeUntilOther(source.ignoreElements())))
+				.transformDeferred(items -> {
+					int[] size = { 0 };
+					return items.bufferUntil(item -> {
+						if (item.isEmpty() || ++size[0] == batchSize) {
+							size[0] = 0;
+							return true;
+						}
+						return false;
+					});
+				})
+				.map(batch -> batch.stream().flatMap(Optional::stream).collect(Collectors.toList()))
+				.filter(batch -> !batch.isEmpty());
 	}
 }
@@ -0,0 +1,58 @@
+package com.demiglace.springboot.rsocket.model;
+
+/**
+ * Optional parameters of a claim stream: where in the claim store to start,
+ * and which claims to include.
+ */
+public class ClaimStreamRequest {
+	private long fromOffset;
+	private String service;
+	private Float minAmount;
+
+	public ClaimStreamRequest() {
+	}
+
+	public ClaimStreamRequest(long fromOffset, String service, Float minAmount) {
+		this.fromOffset = fromOffset;
+		this.service = service;
+		this.minAmount = minAmount;
+	}
+
+	public long getFromOffset() {
+		return fromOffset;
+	}
+
+	public void setFromOffset(long fromOffset) {
+		this.fromOffset = fromOffset;
+	}
+
+	public String getService() {
+		return service;
+	}
+
+	public void setService(String service) {
+		this.service = service;
+	}
+
+	public Float getMinAmount() {
+		return minAmount;
+	}
+
+	public void setMinAmount(Float minAmount) {
+		this.minAmount = minAmount;
+	}
+
+	/**
+	 * Whether a claim passes the service and minimum amount filters.
+	 */
+	public boolean matches(Claim claim) {
+		return (service == null || service.equalsIgnoreCase(claim.getService()))
+				&& (minAmount == null || claim.getAmount() >= minAmount);
+	}
+
+	@Override
+	public String toString() {
+		return "ClaimStreamRequest [fromOffset=" + fromOffset + ", service=" + service + ", minAmount=" + minAmount
+				+ "]";
+	}
+}
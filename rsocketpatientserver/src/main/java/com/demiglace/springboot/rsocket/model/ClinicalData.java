@@ -3,6 +3,10 @@ package com.demiglace.springboot.rsocket.model;
 public class ClinicalData {
 	private int heartRate;
 	private String bp;
+	private String correlationId;
+
+	public ClinicalData() {
+	}
 
 	public ClinicalData(int heartRate, String bp) {
 		super();
@@ -26,9 +30,20 @@ public class ClinicalData {
 		this.bp = bp;
 	}
 
+	/**
+	 * The correlation id of the {@link Patient} this data answers.
+	 */
+	public String getCorrelationId() {
+		return correlationId;
+	}
+
+	public void setCorrelationId(String correlationId) {
+		this.correlationId = correlationId;
+	}
+
 	@Override
 	public String toString() {
-		return "ClinicalData [heartRate=" + heartRate + ", bp=" + bp + "]";
+		return "ClinicalData [heartRate=" + heartRate + ", bp=" + bp + ", correlationId=" + correlationId + "]";
 	}
 
 }
@@ -4,7 +4,11 @@ public class Patient {
 	private String firstName;
 	private String lastName;
 	private String ssn;
+	private String correlationId;
 	
+	public Patient() {
+	}
+
 	public Patient(String firstName, String lastName, String ssn) {
 		this.firstName = firstName;
 		this.lastName = lastName;
@@ -35,9 +39,22 @@ public class Patient {
 		this.ssn = ssn;
 	}
 
+	/**
+	 * Identifies the patient within a patient-data-channel; the matching
+	 * {@link ClinicalData} carries the same id.
+	 */
+	public String getCorrelationId() {
+		return correlationId;
+	}
+
+	public void setCorrelationId(String correlationId) {
+		this.correlationId = correlationId;
+	}
+
 	@Override
 	public String toString() {
-		return "Patient [firstName=" + firstName + ", lastName=" + lastName + ", ssn=" + ssn + "]";
+		return "Patient [firstName=" + firstName + ", lastName=" + lastName + ", ssn=" + ssn + ", correlationId="
+				+ correlationId + "]";
 	}
 	
 	
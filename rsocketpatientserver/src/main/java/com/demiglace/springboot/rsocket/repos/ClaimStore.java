@@ -0,0 +1,42 @@
+package com.demiglace.springboot.rsocket.repos;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.demiglace.springboot.rsocket.model.Claim;
+
+/**
+ * A large, ordered store of claims read a page at a time.
+ */
+public interface ClaimStore {
+
+	/**
+	 * Reads forward from {@code fromOffset}, returning at most {@code limit}
+	 * claims that match {@code filter}. A store may stop early after scanning
+	 * a bounded number of claims, so a page can be short or empty without the
+	 * store being exhausted; {@link ClaimPage#getNextOffset()} says where to
+	 * continue.
+	 */
+	ClaimPage read(long fromOffset, int limit, Predicate<Claim> filter);
+
+	class ClaimPage {
+		private final List<Claim> claims;
+		private final long nextOffset;
+
+		public ClaimPage(List<Claim> claims, long nextOffset) {
+			this.claims = claims;
+			this.nextOffset = nextOffset;
+		}
+
+		public List<Claim> getClaims() {
+			return claims;
+		}
+
+		/**
+		 * The offset to continue from, or -1 once the store is exhausted.
+		 */
+		public long getNextOffset() {
+			return nextOffset;
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.demiglace.springboot.rsocket.repos;
+
+import java.util.List;
+
+import com.demiglace.springboot.rsocket.model.ClinicalData;
+import com.demiglace.springboot.rsocket.model.Patient;
+
+/**
+ * Looks up the latest clinical data of patients, many at a time.
+ */
+public interface ClinicalDataStore {
+
+	/**
+	 * The clinical data of each patient, in the order of {@code patients}.
+	 * Implementations answer a batch in one round-trip to their backing
+	 * store, so a batch costs about as much as a single lookup.
+	 */
+	List<ClinicalData> findByPatients(List<Patient> patients);
+}
@@ -0,0 +1,49 @@
+package com.demiglace.springboot.rsocket.repos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.demiglace.springboot.rsocket.model.Claim;
+
+/**
+ * A claim store of {@code claims.store.size} claims computed from their
+ * offsets, standing in for a claims database: reading a page costs work
+ * proportional to the rows scanned, and nothing is held in memory.
+ */
+@Repository
+public class GeneratedClaimStore implements ClaimStore {
+
+	private static final String[] SERVICES = { "MRI", "Surgery", "XRay", "Consultation", "Laboratory" };
+
+	private final long size;
+	private final int maxScan;
+
+	public GeneratedClaimStore(@Value("${claims.store.size:1000000}") long size,
+			@Value("${claims.store.max-scan:10000}") int maxScan) {
+		this.size = size;
+		this.maxScan = maxScan;
+	}
+
+	@Override
+	public ClaimPage read(long fromOffset, int limit, Predicate<Claim> filter) {
+		List<Claim> claims = new ArrayList<>(Math.min(limit, 256));
+		long offset = Math.max(0, fromOffset);
+		long scanEnd = Math.min(size, offset + Math.max(limit, maxScan));
+		while (offset < scanEnd && claims.size() < limit) {
+			Claim claim = claimAt(offset++);
+			if (filter.test(claim)) {
+				claims.add(claim);
+			}
+		}
+		return new ClaimPage(claims, offset < size ? offset : -1);
+	}
+
+	static Claim claimAt(long offset) {
+		float amount = 100 + (offset * 7919) % 4900;
+		return new Claim(offset, amount, SERVICES[(int) (offset % SERVICES.length)]);
+	}
+}
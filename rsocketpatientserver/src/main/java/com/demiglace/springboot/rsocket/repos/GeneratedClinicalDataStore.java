@@ -0,0 +1,29 @@
+package com.demiglace.springboot.rsocket.repos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Repository;
+
+import com.demiglace.springboot.rsocket.model.ClinicalData;
+import com.demiglace.springboot.rsocket.model.Patient;
+
+/**
+ * Clinical data computed from the patient's SSN, standing in for a clinical
+ * records database: the same patient always gets the same readings.
+ */
+@Repository
+public class GeneratedClinicalDataStore implements ClinicalDataStore {
+
+	@Override
+	public List<ClinicalData> findByPatients(List<Patient> patients) {
+		List<ClinicalData> data = new ArrayList<>(patients.size());
+		for (Patient patient : patients) {
+			int seed = patient.getSsn() == null ? 0 : patient.getSsn().hashCode() & Integer.MAX_VALUE;
+			int systolic = 100 + seed % 40;
+			int diastolic = 60 + (seed / 40) % 30;
+			data.add(new ClinicalData(55 + (seed / 1200) % 45, diastolic + "/" + systolic));
+		}
+		return data;
+	}
+}
@@ -0,0 +1,99 @@
+package com.demiglace.springboot.rsocket.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import com.demiglace.springboot.rsocket.model.Claim;
+import com.demiglace.springboot.rsocket.model.ClaimStreamRequest;
+import com.demiglace.springboot.rsocket.repos.ClaimStore;
+import com.demiglace.springboot.rsocket.repos.GeneratedClaimStore;
+import com.demiglace.springboot.rsocket.repos.GeneratedClinicalDataStore;
+
+import reactor.test.StepVerifier;
+
+class ClaimStreamTest {
+
+	private final CountingClaimStore store = new CountingClaimStore(new GeneratedClaimStore(10_000, 1_000));
+	private final RSocketPatientController controller = new RSocketPatientController(store, 10,
+			new GeneratedClinicalDataStore(), 100, 50, 4);
+
+	@Test
+	void readsOnlyAsFarAheadAsDemand() {
+		StepVerifier.create(controller.requestStream(null), 5)
+				.expectNextCount(5)
+				.thenAwait(Duration.ofMillis(100))
+				.then(() -> assertThat(store.reads.get()).isLessThanOrEqualTo(2))
+				.thenRequest(20)
+				.expectNextCount(20)
+				.thenAwait(Duration.ofMillis(100))
+				.then(() -> assertThat(store.reads.get()).isLessThanOrEqualTo(4))
+				.thenCancel()
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void streamsTheWholeStoreInOrder() {
+		List<Claim> claims = controller.requestStream(new ClaimStreamRequest()).collectList().block(Duration.ofSeconds(5));
+		assertThat(claims).hasSize(10_000);
+		for (int i = 0; i < claims.size(); i++) {
+			assertThat(claims.get(i).getOffset()).isEqualTo(i);
+		}
+	}
+
+	@Test
+	void filtersByServiceAndAmount() {
+		List<Claim> claims = controller.requestStream(new ClaimStreamRequest(0, "mri", 4000f))
+				.collectList().block(Duration.ofSeconds(5));
+		assertThat(claims).isNotEmpty().allSatisfy(claim -> {
+			assertThat(claim.getService()).isEqualTo("MRI");
+			assertThat(claim.getAmount()).isGreaterThanOrEqualTo(4000f);
+		});
+	}
+
+	@Test
+	void sparseFiltersKeepStreamingPastEmptyPages() {
+		// no claim matches, so every page comes back empty until the store ends
+		StepVerifier.create(controller.requestStream(new ClaimStreamRequest(0, "Dentistry", null)))
+				.verifyComplete();
+	}
+
+	@Test
+	void resumesAfterTheLastReceivedOffset() {
+		Claim last = controller.requestStream(new ClaimStreamRequest(0, "XRay", null)).take(25)
+				.blockLast(Duration.ofSeconds(5));
+		Claim next = controller.requestStream(new ClaimStreamRequest(last.getOffset() + 1, "XRay", null))
+				.blockFirst(Duration.ofSeconds(5));
+		List<Claim> expected = controller.requestStream(new ClaimStreamRequest(0, "XRay", null)).take(26)
+				.collectList().block(Duration.ofSeconds(5));
+		assertThat(next.getOffset()).isEqualTo(expected.get(25).getOffset());
+	}
+
+	@Test
+	void rejectsNegativeOffsets() {
+		StepVerifier.create(controller.requestStream(new ClaimStreamRequest(-1, null, null)))
+				.expectError(IllegalArgumentException.class)
+				.verify();
+	}
+
+	private static class CountingClaimStore implements ClaimStore {
+
+		private final ClaimStore delegate;
+		private final AtomicInteger reads = new AtomicInteger();
+
+		CountingClaimStore(ClaimStore delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public ClaimPage read(long fromOffset, int limit, Predicate<Claim> filter) {
+			reads.incrementAndGet();
+			return delegate.read(fromOffset, limit, filter);
+		}
+	}
+}
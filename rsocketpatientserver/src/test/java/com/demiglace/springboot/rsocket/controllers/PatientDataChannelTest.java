@@ -0,0 +1,121 @@
+package com.demiglace.springboot.rsocket.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.demiglace.springboot.rsocket.model.ClinicalData;
+import com.demiglace.springboot.rsocket.model.Patient;
+import com.demiglace.springboot.rsocket.repos.ClinicalDataStore;
+import com.demiglace.springboot.rsocket.repos.GeneratedClaimStore;
+import com.demiglace.springboot.rsocket.repos.GeneratedClinicalDataStore;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class PatientDataChannelTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	private final CountingClinicalDataStore store = new CountingClinicalDataStore();
+	private final RSocketPatientController controller = new RSocketPatientController(
+			new GeneratedClaimStore(0, 1), 10, store, 50, 20, 3);
+
+	@Test
+	void answersEveryPatientWithItsCorrelationId() {
+		Flux<Patient> patients = Flux.range(0, 1000).map(PatientDataChannelTest::patient);
+		List<ClinicalData> data = controller.requestChannel(patients).collectList().block(TIMEOUT);
+
+		assertThat(data).hasSize(1000);
+		assertThat(data.stream().map(ClinicalData::getCorrelationId).collect(Collectors.toSet()))
+				.hasSize(1000)
+				.allMatch(id -> id.startsWith("id-"));
+		List<ClinicalData> expected = new GeneratedClinicalDataStore().findByPatients(List.of(patient(7)));
+		assertThat(data).filteredOn(clinicalData -> clinicalData.getCorrelationId().equals("id-7"))
+				.singleElement()
+				.satisfies(clinicalData -> assertThat(clinicalData.getBp()).isEqualTo(expected.get(0).getBp()));
+	}
+
+	@Test
+	void looksPatientsUpInBatchesWithBoundedConcurrency() {
+		Flux<Patient> patients = Flux.range(0, 1000).map(PatientDataChannelTest::patient);
+		controller.requestChannel(patients).blockLast(TIMEOUT);
+
+		assertThat(store.batches.get()).isBetween(20, 40);
+		assertThat(store.maxActive.get()).isLessThanOrEqualTo(3);
+	}
+
+	@Test
+	void flushesPartialBatchesWhileTheChannelIsOpen() {
+		Sinks.Many<Patient> patients = Sinks.many().unicast().onBackpressureBuffer();
+		StepVerifier.create(controller.requestChannel(patients.asFlux()))
+				.then(() -> {
+					patients.tryEmitNext(patient(1));
+					patients.tryEmitNext(patient(2));
+				})
+				.expectNextCount(2)
+				.then(() -> patients.tryEmitNext(patient(3)))
+				.assertNext(clinicalData -> assertThat(clinicalData.getCorrelationId()).isEqualTo("id-3"))
+				.then(patients::tryEmitComplete)
+				.expectComplete()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	void numbersPatientsWithoutCorrelationIds() {
+		Flux<Patient> patients = Flux.just(new Patient("Ann", "Lee", "111"), new Patient("Bob", "Ray", "222"));
+		List<ClinicalData> data = controller.requestChannel(patients).collectList().block(TIMEOUT);
+
+		assertThat(data).extracting(ClinicalData::getCorrelationId).containsExactlyInAnyOrder("0", "1");
+	}
+
+	@Test
+	void requestsPatientsOnlyAsResultsAreConsumed() {
+		AtomicInteger sent = new AtomicInteger();
+		Flux<Patient> patients = Flux.range(0, 100_000).map(PatientDataChannelTest::patient)
+				.doOnNext(patient -> sent.incrementAndGet());
+		StepVerifier.create(controller.requestChannel(patients), 10)
+				.expectNextCount(10)
+				.thenAwait(Duration.ofMillis(200))
+				.then(() -> assertThat(sent.get()).isLessThan(2_000))
+				.thenCancel()
+				.verify(TIMEOUT);
+	}
+
+	private static Patient patient(int i) {
+		Patient patient = new Patient("First" + i, "Last" + i, "ssn-" + i);
+		patient.setCorrelationId("id-" + i);
+		return patient;
+	}
+
+	private static class CountingClinicalDataStore implements ClinicalDataStore {
+
+		private final ClinicalDataStore delegate = new GeneratedClinicalDataStore();
+		private final AtomicInteger batches = new AtomicInteger();
+		private final AtomicInteger active = new AtomicInteger();
+		private final AtomicInteger maxActive = new AtomicInteger();
+
+		@Override
+		public List<ClinicalData> findByPatients(List<Patient> patients) {
+			batches.incrementAndGet();
+			maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(5);
+				return delegate.findByPatients(patients);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(ex);
+			}
+			finally {
+				active.decrementAndGet();
+			}
+		}
+	}
+}